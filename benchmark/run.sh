@@ -0,0 +1,28 @@
+#!/bin/sh
+# Compiles and runs the DAO benchmark on the local JVM, from any directory.
+#
+#   SQLITE_JDBC=/path/to/sqlite-jdbc.jar:/path/to/slf4j-api.jar benchmark/run.sh --preset medium
+#
+# Needs JDK 11+ and org.xerial:sqlite-jdbc (plus slf4j-api, which sqlite-jdbc depends on).
+# All arguments are passed to DaoBenchmark, see its class comment for the options.
+set -e
+
+if [ -z "$SQLITE_JDBC" ]; then
+    echo "Set SQLITE_JDBC to the sqlite-jdbc jar (and slf4j-api jar), separated by ':'" >&2
+    exit 2
+fi
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/benchmark/build"
+rm -rf "$OUT"
+mkdir -p "$OUT"
+
+# SchemaSql is compiled straight from the app so the benchmark replays the real migrations,
+# PendingToggles so ToggleCheck runs the real toggle bookkeeping
+javac -encoding UTF-8 -d "$OUT" -cp "$SQLITE_JDBC" \
+    "$ROOT/packyourbag/Database/SchemaSql.java" \
+    "$ROOT/packyourbag/Database/PendingToggles.java" \
+    $(find "$ROOT/benchmark/src" -name '*.java')
+
+cd "$ROOT"
+exec java -cp "$OUT:$SQLITE_JDBC" com.example.packyourbag.benchmark.DaoBenchmark "$@"
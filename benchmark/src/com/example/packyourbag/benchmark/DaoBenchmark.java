@@ -0,0 +1,589 @@
+package com.example.packyourbag.benchmark;
+
+import com.example.packyourbag.Database.SchemaSql;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks the Room DAO layer on a plain JVM against SQLite (sqlite-jdbc).
+ *
+ * The database starts at schema version 1, is filled with a synthetic dataset and is then
+ * upgraded with the app's own migration SQL (SchemaSql), so migration cost and correctness are
+ * measured on the same data. Every @Query in DAOInterfaces is read from source and benchmarked,
+ * along with the SQL Room generates for the @Insert/@Update/@Delete and @Transaction paths.
+ *
+ * Usage (from the repository root, see benchmark/run.sh):
+ *   --preset small|medium|large   1k trips/10k items, 10k/100k, 10k/1M
+ *   --trips N --items N           custom dataset size
+ *   --iterations N                measured runs per operation (default 200, plus 20% warm-up)
+ *   --source DIR                  app sources (default packyourbag)
+ *   --db FILE                     database file (default a temp file, deleted afterwards)
+ *   --csv FILE                    also write the results as CSV
+ *   --plans                       print EXPLAIN QUERY PLAN for every read query
+ *
+ * Exits with status 1 when the migrated schema doesn't match the entities, when a read
+ * query that isn't in WHOLE_TABLE_READS is planned as a full table scan, or when ToggleCheck
+ * finds a flush order that loses a packed toggle.
+ */
+public final class DaoBenchmark {
+    private static final Pattern NAMED_PARAM = Pattern.compile(":(\\w+)");
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (\\w+)$");
+    // Reads that want every row of their table: the export, and the materialized stats tables,
+    // which hold one row per trip type or duration. Any other full scan fails the run
+    private static final Set<String> WHOLE_TABLE_READS = new HashSet<>(Arrays.asList(
+            "TripDao.getTripsForExport",
+            "TripDao.getArchivedTripsForExport",
+            "StatsDao.getPackingStats",
+            "StatsDao.observeTripTypeStats",
+            "StatsDao.observeDurationStats"));
+    private static final int BATCH_SIZE = 40; // A generated packing list is about this long
+
+    private final SourceModel model;
+    private final Dataset dataset;
+    private final Connection connection;
+    private final int iterations;
+    private final boolean printPlans;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<LatencyStats> results = new ArrayList<>();
+    private final List<String> unexpectedScans = new ArrayList<>();
+
+    private interface Operation {
+        void run() throws SQLException;
+    }
+
+    private DaoBenchmark(SourceModel model, Dataset dataset, Connection connection, int iterations, boolean printPlans) {
+        this.model = model;
+        this.dataset = dataset;
+        this.connection = connection;
+        this.iterations = iterations;
+        this.printPlans = printPlans;
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int trips = 1_000;
+        int items = 10_000;
+        switch (options.getOrDefault("preset", "")) {
+            case "medium": trips = 10_000; items = 100_000; break;
+            case "large": trips = 10_000; items = 1_000_000; break;
+            default: break;
+        }
+        trips = Integer.parseInt(options.getOrDefault("trips", String.valueOf(trips)));
+        items = Integer.parseInt(options.getOrDefault("items", String.valueOf(items)));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "200"));
+
+        SourceModel model = SourceModel.load(Paths.get(options.getOrDefault("source", "packyourbag")));
+        boolean tempDb = !options.containsKey("db");
+        Path dbFile = tempDb ? Files.createTempFile("packing-bench", ".db") : Paths.get(options.get("db"));
+        Files.deleteIfExists(dbFile);
+
+        System.out.printf("Dataset: %,d trips, %,d packing items, %d iterations per operation%n", trips, items, iterations);
+        System.out.printf("Sources: %d entities, %d DAO queries%n", model.entities.size(), model.queries.size());
+
+        List<String> problems;
+        List<String> unexpectedScans;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile)) {
+            try (Statement statement = connection.createStatement()) {
+                // Same settings Android uses for a WAL database
+                statement.execute("PRAGMA journal_mode = WAL");
+                statement.execute("PRAGMA synchronous = NORMAL");
+            }
+
+            DaoBenchmark benchmark = new DaoBenchmark(model, new Dataset(trips, items, 42), connection,
+                    iterations, options.containsKey("plans"));
+            problems = benchmark.prepareDatabase();
+            benchmark.benchmarkQueries();
+            benchmark.benchmarkWrites();
+            benchmark.report(options.get("csv"));
+            unexpectedScans = benchmark.unexpectedScans;
+        } finally {
+            if (tempDb) {
+                Files.deleteIfExists(dbFile);
+                Files.deleteIfExists(Paths.get(dbFile + "-wal"));
+                Files.deleteIfExists(Paths.get(dbFile + "-shm"));
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            System.out.println();
+            System.out.println("Schema after migration does not match the entities:");
+            problems.forEach(problem -> System.out.println("  - " + problem));
+            System.exit(1);
+        }
+        if (!unexpectedScans.isEmpty()) {
+            System.out.println();
+            System.out.println("Queries planned as a full table scan (add an index, or list them in WHOLE_TABLE_READS):");
+            unexpectedScans.forEach(scan -> System.out.println("  - " + scan));
+            System.exit(1);
+        }
+        List<String> lostToggles = ToggleCheck.run();
+        if (!lostToggles.isEmpty()) {
+            System.out.println();
+            System.out.println("Packed toggles that PackedStateBuffer would lose:");
+            lostToggles.forEach(problem -> System.out.println("  - " + problem));
+            System.exit(1);
+        }
+    }
+
+    // Version 1 schema, synthetic data, then every migration up to the current version
+    private List<String> prepareDatabase() throws SQLException {
+        SchemaCheck.createVersion1(connection);
+
+        long start = System.nanoTime();
+        dataset.populate(connection);
+        System.out.printf("Populated version 1 schema in %.1f s%n", (System.nanoTime() - start) / 1e9);
+
+        connection.setAutoCommit(false);
+        for (int version = 1; version < SchemaSql.LATEST_VERSION; version++) {
+            LatencyStats stats = new LatencyStats("Migration " + version + " -> " + (version + 1));
+            long allocatedBefore = allocatedBytes();
+            start = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SchemaSql.forMigration(version)) {
+                    statement.execute(sql);
+                }
+                statement.execute("PRAGMA user_version = " + (version + 1));
+            }
+            connection.commit();
+            stats.record(System.nanoTime() - start, allocatedBytes() - allocatedBefore);
+            stats.note = "one run on the full dataset";
+            results.add(stats);
+        }
+        connection.setAutoCommit(true);
+
+        List<String> problems = SchemaCheck.verify(connection, model);
+        System.out.println(problems.isEmpty()
+                ? "Migrated schema matches the entities"
+                : problems.size() + " schema problem(s), listed at the end");
+        return problems;
+    }
+
+    private void benchmarkQueries() throws SQLException {
+        Map<String, SourceModel.DaoQuery> seen = new LinkedHashMap<>();
+        for (SourceModel.DaoQuery query : model.queries) {
+            // LiveData variants share SQL with a plain query, measure each statement once
+            SourceModel.DaoQuery duplicate = seen.putIfAbsent(query.sql, query);
+            if (duplicate != null) {
+                continue;
+            }
+
+            if (query.isWrite()) {
+                benchmarkRolledBackWrite(query);
+            } else {
+                benchmarkRead(query);
+            }
+        }
+    }
+
+    private void benchmarkRead(SourceModel.DaoQuery query) throws SQLException {
+        LatencyStats stats = new LatencyStats(query.label());
+        stats.note = planNote(query);
+
+        measure(stats, () -> {
+            try (PreparedStatement statement = bind(query)) {
+                materialize(statement.executeQuery());
+            }
+        });
+        results.add(stats);
+    }
+
+    // @Query UPDATE/DELETE statements run in a transaction that is rolled back, so the
+    // dataset stays the same for everything measured after them
+    private void benchmarkRolledBackWrite(SourceModel.DaoQuery query) throws SQLException {
+        LatencyStats stats = new LatencyStats(query.label());
+        stats.note = "statement only, rolled back";
+        connection.setAutoCommit(false);
+        try {
+            measure(stats, () -> {
+                try (PreparedStatement statement = bind(query)) {
+                    statement.executeUpdate();
+                }
+            }, connection::rollback);
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        results.add(stats);
+    }
+
+    // The SQL Room generates for the entity methods, and the DAO's @Transaction defaults
+    private void benchmarkWrites() throws SQLException {
+        SourceModel.Entity trip = model.entity("trips");
+
+        try (PreparedStatement insertTrip = connection.prepareStatement(insertSql(trip));
+             PreparedStatement deleteItem = connection.prepareStatement("DELETE FROM `packing_items` WHERE `id` = ?");
+             PreparedStatement deleteTrip = connection.prepareStatement("DELETE FROM `trips` WHERE `id` = ?");
+             PreparedStatement deleteTripItems = connection.prepareStatement("DELETE FROM packing_items WHERE tripId = ?")) {
+
+            measureWrite("TripDao.insertTrip", () -> {
+                bindRow(insertTrip, trip, dataset.tripValues(dataset.nextInt(dataset.tripCount)));
+                insertTrip.executeUpdate();
+            });
+
+            measureWrite("PackingItemDao.insertItem", () ->
+                    insertNamedItems(dataset.randomTripId(), 1));
+
+            measureWrite("PackingItemDao.insertAll (" + BATCH_SIZE + " items)", () ->
+                    insertNamedItems(dataset.randomTripId(), BATCH_SIZE));
+
+            List<Long> tripsWithItems = new ArrayList<>();
+            measureWrite("TripDao.insertTripWithItems (" + BATCH_SIZE + " items)", () -> {
+                bindRow(insertTrip, trip, dataset.tripValues(dataset.nextInt(dataset.tripCount)));
+                insertTrip.executeUpdate();
+                long tripId = lastInsertId();
+                tripsWithItems.add(tripId);
+                insertNamedItems(tripId, BATCH_SIZE);
+            });
+
+            // Versioned narrow update; a version that no longer matches still costs the lookup
+            measureWrite("TripDao.setWeatherInfo", () ->
+                    executeQuery("TripDao.setWeatherInfo", new Object[0]));
+
+            measureWrite("PackingItemDao.updateItem", () -> {
+                Object[] values = dataset.itemValues(dataset.randomTripId(), dataset.nextInt(1000));
+                Object itemName = Dataset.valueOf(values, "itemName");
+                Object category = Dataset.valueOf(values, "category");
+                executeQuery("CatalogDao.insertCategoryName", new Object[]{"name", category});
+                executeQuery("CatalogDao.insertCatalogName", new Object[]{"name", itemName});
+                executeQuery("PackingItemDao.setItemNames", new Object[]{
+                        "itemId", dataset.randomItemId(), "itemName", itemName, "category", category,
+                        "expectedVersion", 0});
+            });
+
+            measureWrite("PackingItemDao.setPackedStates (" + BATCH_SIZE + " ids)", () -> {
+                List<Long> ids = dataset.randomItemIds(BATCH_SIZE);
+                int half = ids.size() / 2;
+                setPacked(ids.subList(0, half), true);
+                setPacked(ids.subList(half, ids.size()), false);
+            });
+
+            // Delete the items inserted above, one per transaction like deleteItem
+            List<Long> insertedItems = lastInsertedIds("packing_items", iterations);
+            int[] next = {0};
+            measureWrite("PackingItemDao.deleteItem", () -> {
+                deleteItem.setLong(1, insertedItems.get(next[0]++ % insertedItems.size()));
+                deleteItem.executeUpdate();
+            });
+
+            int[] nextTrip = {0};
+            measureWrite("TripDao.deleteTripWithItems (" + BATCH_SIZE + " items)", () -> {
+                long tripId = tripsWithItems.get(nextTrip[0]++ % tripsWithItems.size());
+                deleteTripItems.setLong(1, tripId);
+                deleteTripItems.executeUpdate();
+                deleteTrip.setLong(1, tripId);
+                deleteTrip.executeUpdate();
+            });
+        }
+    }
+
+    // CatalogDao.insertNamedItems: each distinct name is added once, then the row is inserted by name
+    private void insertNamedItems(long tripId, int count) throws SQLException {
+        Set<Object> categories = new HashSet<>();
+        Set<Object> names = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            Object[] values = dataset.itemValues(tripId, dataset.nextInt(1000));
+            Object category = Dataset.valueOf(values, "category");
+            Object itemName = Dataset.valueOf(values, "itemName");
+            if (categories.add(category)) {
+                executeQuery("CatalogDao.insertCategoryName", new Object[]{"name", category});
+            }
+            if (names.add(itemName)) {
+                executeQuery("CatalogDao.insertCatalogName", new Object[]{"name", itemName});
+            }
+            executeQuery("CatalogDao.insertNamedItem", values);
+        }
+    }
+
+    private void executeQuery(String label, Object[] namedValues) throws SQLException {
+        try (PreparedStatement statement = bind(model.query(label), "", namedValues)) {
+            statement.executeUpdate();
+        }
+    }
+
+    private void setPacked(List<Long> ids, boolean isPacked) throws SQLException {
+        if (ids.isEmpty()) return;
+        executeQuery("PackingItemDao.setPacked", new Object[]{"itemIds", ids, "isPacked", isPacked});
+    }
+
+    // One committed transaction per operation, as Room runs every write
+    private void measureWrite(String label, Operation operation) throws SQLException {
+        LatencyStats stats = new LatencyStats(label);
+        stats.note = "committed transaction";
+        connection.setAutoCommit(false);
+        try {
+            measure(stats, () -> {
+                operation.run();
+                connection.commit();
+            });
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        results.add(stats);
+    }
+
+    private void measure(LatencyStats stats, Operation operation) throws SQLException {
+        measure(stats, operation, null);
+    }
+
+    private void measure(LatencyStats stats, Operation operation, Operation afterEach) throws SQLException {
+        int warmup = Math.max(1, iterations / 5);
+        for (int i = 0; i < warmup + iterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            operation.run();
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+            if (i >= warmup) {
+                stats.record(elapsed, allocated);
+            }
+            if (afterEach != null) {
+                afterEach.run();
+            }
+        }
+    }
+
+    // Named DAO parameters become positional; List parameters expand to one ? per element
+    private PreparedStatement bind(SourceModel.DaoQuery query) throws SQLException {
+        return bind(query, "", null);
+    }
+
+    // namedValues (name, value pairs) override the random values for the names they contain
+    private PreparedStatement bind(SourceModel.DaoQuery query, String prefix, Object[] namedValues) throws SQLException {
+        List<Object> values = new ArrayList<>();
+        StringBuffer sql = new StringBuffer(prefix);
+        Matcher matcher = NAMED_PARAM.matcher(query.sql);
+        while (matcher.find()) {
+            SourceModel.Param param = query.param(matcher.group(1));
+            Object value = hasValue(namedValues, param.name)
+                    ? Dataset.valueOf(namedValues, param.name)
+                    : valueFor(query, param);
+            if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                matcher.appendReplacement(sql, String.join(", ", Collections.nCopies(list.size(), "?")));
+                values.addAll(list);
+            } else {
+                matcher.appendReplacement(sql, "?");
+                values.add(value);
+            }
+        }
+        matcher.appendTail(sql);
+
+        PreparedStatement statement = connection.prepareStatement(sql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            statement.setObject(i + 1, value instanceof Boolean ? ((Boolean) value ? 1 : 0) : value);
+        }
+        return statement;
+    }
+
+    private static boolean hasValue(Object[] namedValues, String name) {
+        if (namedValues == null) return false;
+        for (int i = 0; i < namedValues.length; i += 2) {
+            if (namedValues[i].equals(name)) return true;
+        }
+        return false;
+    }
+
+    // Realistic values for every parameter name the DAOs use; a new name fails loudly so the
+    // benchmark gets updated together with the query
+    private Object valueFor(SourceModel.DaoQuery query, SourceModel.Param param) {
+        long today = Dataset.TODAY.toEpochDay();
+        switch (param.name) {
+            case "tripId":
+            case "sourceTripId":
+            case "newTripId":
+                return dataset.randomTripId();
+            case "templateId":
+                return 1L;
+            case "itemId":
+                return dataset.randomItemId();
+            case "id":
+                return query.dao.equals("PackingItemDao") ? dataset.randomItemId() : dataset.randomTripId();
+            case "itemIds":
+                return dataset.randomItemIds(BATCH_SIZE);
+            case "tripIds":
+                return dataset.randomTripIds(BATCH_SIZE);
+            case "fromTripId": // The newest trips, like a failed import being undone
+                return (long) dataset.tripCount - BATCH_SIZE + 1;
+            case "toTripId":
+                return (long) dataset.tripCount;
+            case "lastId":
+                return (long) dataset.tripCount + BATCH_SIZE;
+            case "createdAt":
+                return dataset.createdAtFor(dataset.nextInt(dataset.tripCount));
+            case "limit":
+                return 50;
+            case "category":
+                return dataset.randomCategory();
+            case "categoryId":
+                return 1L + dataset.nextInt(Dataset.CATEGORIES.length);
+            case "name":
+                return query.method.contains("Category") ? dataset.randomCategory() : dataset.randomItemName();
+            case "itemName":
+                return dataset.randomItemName();
+            case "tripType":
+                return dataset.randomTripType();
+            case "isPacked":
+                return dataset.randomBoolean();
+            case "todayEpochDay":
+            case "fromEpochDay":
+                return today;
+            case "toEpochDay":
+                return today + 30;
+            case "cutoffEpochDay":
+                return today - 180;
+            case "unknownEpochDay":
+                return Long.MIN_VALUE; // PackingUtils.UNKNOWN_EPOCH_DAY
+            case "expectedVersion":
+            case "version":
+                return 0;
+            case "weatherInfo":
+                return "Rain, 12°C";
+            case "destination":
+                return Dataset.CITIES[dataset.nextInt(Dataset.CITIES.length)];
+            case "matchQuery":
+                return "adapt*";
+            case "query":
+                return Dataset.CITIES[dataset.nextInt(Dataset.CITIES.length)].toLowerCase().replace(", ", ",");
+            case "queries": // One autocomplete response
+                List<String> queries = new ArrayList<>();
+                for (int i = 0; i < 5; i++) {
+                    queries.add(Dataset.CITIES[dataset.nextInt(Dataset.CITIES.length)].toLowerCase().replace(", ", ","));
+                }
+                return queries;
+            case "freshAfter":
+            case "before":
+                return System.currentTimeMillis() - 90L * 24 * 60 * 60 * 1000;
+            default:
+                throw new IllegalStateException("No benchmark value for :" + param.name + " in " + query.label()
+                        + ", add one to DaoBenchmark.valueFor");
+        }
+    }
+
+    // Reads every column of every row, like Room's generated cursor mapping
+    private static int materialize(ResultSet rows) throws SQLException {
+        int columns = rows.getMetaData().getColumnCount();
+        List<Object[]> all = new ArrayList<>();
+        while (rows.next()) {
+            Object[] row = new Object[columns];
+            for (int i = 0; i < columns; i++) {
+                row[i] = rows.getObject(i + 1);
+            }
+            all.add(row);
+        }
+        rows.close();
+        return all.size();
+    }
+
+    private String planNote(SourceModel.DaoQuery query) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        boolean fullScan = false;
+        try (PreparedStatement explain = bind(query, "EXPLAIN QUERY PLAN ", null);
+             ResultSet rows = explain.executeQuery()) {
+            while (rows.next()) {
+                String detail = rows.getString("detail");
+                plan.add(detail);
+                fullScan |= FULL_SCAN.matcher(detail).matches();
+            }
+        }
+        if (printPlans) {
+            System.out.println(query.label() + ":");
+            plan.forEach(line -> System.out.println("    " + line));
+        }
+        if (!fullScan) return "";
+        if (WHOLE_TABLE_READS.contains(query.label())) return "full scan, whole table by design";
+        unexpectedScans.add(query.label() + ": " + String.join("; ", plan));
+        return "FULL SCAN";
+    }
+
+    private String insertSql(SourceModel.Entity entity) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (SourceModel.Field field : entity.fields) {
+            boolean first = columns.length() == 0;
+            columns.append(first ? "" : ",").append('`').append(field.name).append('`');
+            values.append(first ? "" : ",").append(field.name.equals("id") ? "nullif(?, 0)" : "?");
+        }
+        return "INSERT OR ABORT INTO `" + entity.table + "` (" + columns + ") VALUES (" + values + ")";
+    }
+
+    // Binds all entity fields in order, id = 0 so SQLite assigns one
+    private void bindRow(PreparedStatement statement, SourceModel.Entity entity, Object[] values) throws SQLException {
+        int index = 1;
+        for (SourceModel.Field field : entity.fields) {
+            statement.setObject(index++, field.name.equals("id") ? 0L : Dataset.valueOf(values, field.name));
+        }
+    }
+
+    private long lastInsertId() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT last_insert_rowid()")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private List<Long> lastInsertedIds(String table, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM `" + table + "` ORDER BY id DESC LIMIT " + count)) {
+            while (rows.next()) ids.add(rows.getLong(1));
+        }
+        return ids;
+    }
+
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void report(String csvFile) throws IOException {
+        System.out.println();
+        System.out.println(LatencyStats.header());
+        for (LatencyStats stats : results) {
+            System.out.println(stats.row());
+        }
+
+        if (csvFile != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(csvFile)))) {
+                out.println("operation,n,p50_ms,p90_ms,p99_ms,max_ms,alloc_kb_per_op,note");
+                results.forEach(stats -> out.println(stats.csv()));
+            }
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            String name = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            options.put(name, hasValue ? args[++i] : "true");
+        }
+        return options;
+    }
+}
\ No newline at end of file
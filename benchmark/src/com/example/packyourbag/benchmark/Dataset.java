@@ -0,0 +1,208 @@
+package com.example.packyourbag.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Synthetic trips and packing items shaped like real usage, plus the random parameter
+ * values the benchmark binds into each DAO query
+ */
+final class Dataset {
+    static final String[] CITIES = {
+            "Paris, FR", "London, GB", "Tokyo, JP", "New York, US", "Kathmandu, NP", "Sydney, AU",
+            "Cape Town, ZA", "Reykjavik, IS", "Lima, PE", "Bangkok, TH", "Rome, IT", "Toronto, CA"
+    };
+    static final String[] TRIP_TYPES = {"Vacation", "Business", "Adventure", "Beach", "Winter", "Family"};
+    static final String[] CATEGORIES = {
+            "Clothing", "Electronics", "Documents", "Personal Care", "Health", "Accessories",
+            "Footwear", "Weather-Update", "Travel Gear", "Misc"
+    };
+    static final String[] ITEM_NAMES = {
+            "Phone Charger", "Travel Adapter", "Power Bank", "Headphones", "Laptop", "Camera",
+            "Passport", "Boarding Pass", "Travel Insurance", "Wallet", "Toothbrush", "Toothpaste",
+            "Sunscreen", "Shampoo", "Deodorant", "First Aid Kit", "Pain Relievers", "Band-Aids",
+            "T-Shirts", "Jeans", "Socks", "Underwear", "Jacket", "Raincoat", "Umbrella", "Sweater",
+            "Swimsuit", "Sunglasses", "Hat", "Gloves", "Scarf", "Hiking Boots", "Sandals", "Sneakers",
+            "Water Bottle", "Snacks", "Backpack", "Neck Pillow", "Eye Mask", "Earplugs"
+    };
+
+    // Dates are spread around a fixed "today" so runs are comparable
+    static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    final int tripCount;
+    final int itemCount;
+    private final Random random;
+
+    Dataset(int tripCount, int itemCount, long seed) {
+        this.tripCount = tripCount;
+        this.itemCount = itemCount;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Inserts the trips and items into whatever columns the tables have at the current schema
+     * version, so the same data can be loaded before the migrations run
+     */
+    void populate(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+
+        RowWriter trips = new RowWriter(connection, "trips");
+        for (int i = 0; i < tripCount; i++) {
+            trips.insert(tripValues(i));
+            if (i % 50_000 == 49_999) connection.commit();
+        }
+        trips.close();
+
+        RowWriter items = new RowWriter(connection, "packing_items");
+        for (int i = 0; i < itemCount; i++) {
+            items.insert(itemValues(1 + random.nextInt(tripCount), i));
+            if (i % 50_000 == 49_999) connection.commit();
+        }
+        items.close();
+
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    // Field name -> value for one trip; fields the benchmark doesn't know get a type default
+    Object[] tripValues(int index) {
+        LocalDate start = TODAY.plusDays(random.nextInt(1460) - 1095); // three years back, one ahead
+        int duration = 1 + random.nextInt(21);
+        LocalDate end = start.plusDays(duration - 1);
+        return new Object[]{
+                "destination", CITIES[random.nextInt(CITIES.length)],
+                "duration", duration,
+                "tripType", TRIP_TYPES[random.nextInt(TRIP_TYPES.length)],
+                "startDate", start.toString(),
+                "endDate", end.toString(),
+                "weatherInfo", "Clear sky, " + (random.nextInt(35) - 5) + "°C",
+                // A few trips share a timestamp so keyset ties on createdAt are exercised
+                "createdAt", createdAtFor(index),
+                "date", start.toString(),
+                "startEpochDay", start.toEpochDay(),
+                "endEpochDay", end.toEpochDay()
+        };
+    }
+
+    Object[] itemValues(long tripId, int index) {
+        String name = ITEM_NAMES[random.nextInt(ITEM_NAMES.length)];
+        if (random.nextInt(4) == 0) {
+            name = name + " " + (index % 997); // Long tail of user-typed names
+        }
+        return new Object[]{
+                "tripId", tripId,
+                "itemName", name,
+                "category", randomCategory(),
+                "isPacked", random.nextInt(3) == 0,
+                "createdAt", System.currentTimeMillis(),
+                // Lookup ids once the names are normalized, all within the ids the migration assigns
+                "categoryId", 1 + random.nextInt(CATEGORIES.length),
+                "catalogItemId", 1 + random.nextInt(ITEM_NAMES.length)
+        };
+    }
+
+    long createdAtFor(int tripIndex) {
+        return 1_600_000_000_000L + (tripIndex / 4 * 4) * 3_600_000L;
+    }
+
+    long randomTripId() {
+        return 1 + random.nextInt(tripCount);
+    }
+
+    long randomItemId() {
+        return 1 + random.nextInt(itemCount);
+    }
+
+    String randomCategory() {
+        return CATEGORIES[random.nextInt(CATEGORIES.length)];
+    }
+
+    String randomItemName() {
+        return ITEM_NAMES[random.nextInt(ITEM_NAMES.length)];
+    }
+
+    String randomTripType() {
+        return TRIP_TYPES[random.nextInt(TRIP_TYPES.length)];
+    }
+
+    boolean randomBoolean() {
+        return random.nextBoolean();
+    }
+
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    List<Long> randomItemIds(int count) {
+        Set<Long> ids = new HashSet<>();
+        while (ids.size() < Math.min(count, itemCount)) {
+            ids.add(randomItemId());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    List<Long> randomTripIds(int count) {
+        Set<Long> ids = new HashSet<>();
+        while (ids.size() < Math.min(count, tripCount)) {
+            ids.add(randomTripId());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Prepared insert into the columns that exist right now, in table order
+     */
+    static final class RowWriter implements AutoCloseable {
+        private final List<String> columns = new ArrayList<>();
+        private final PreparedStatement statement;
+
+        RowWriter(Connection connection, String table) throws SQLException {
+            try (Statement pragma = connection.createStatement();
+                 ResultSet info = pragma.executeQuery("PRAGMA table_info(`" + table + "`)")) {
+                while (info.next()) {
+                    if (!info.getString("name").equals("id")) columns.add(info.getString("name"));
+                }
+            }
+
+            StringBuilder sql = new StringBuilder("INSERT INTO `").append(table).append("` (");
+            StringBuilder placeholders = new StringBuilder();
+            for (int i = 0; i < columns.size(); i++) {
+                sql.append(i > 0 ? "," : "").append('`').append(columns.get(i)).append('`');
+                placeholders.append(i > 0 ? "," : "").append('?');
+            }
+            sql.append(") VALUES (").append(placeholders).append(')');
+            statement = connection.prepareStatement(sql.toString());
+        }
+
+        void insert(Object[] namedValues) throws SQLException {
+            for (int i = 0; i < columns.size(); i++) {
+                statement.setObject(i + 1, valueOf(namedValues, columns.get(i)));
+            }
+            statement.executeUpdate();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            statement.close();
+        }
+    }
+
+    static Object valueOf(Object[] namedValues, String name) {
+        for (int i = 0; i < namedValues.length; i += 2) {
+            if (namedValues[i].equals(name)) {
+                Object value = namedValues[i + 1];
+                return value instanceof Boolean ? ((Boolean) value ? 1 : 0) : value;
+            }
+        }
+        return 0; // Unknown columns are NOT NULL integers with a default in practice
+    }
+}
\ No newline at end of file
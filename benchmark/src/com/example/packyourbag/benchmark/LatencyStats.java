@@ -0,0 +1,59 @@
+package com.example.packyourbag.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Latency samples and allocated bytes for one benchmarked operation
+ */
+final class LatencyStats {
+    final String label;
+    private long[] nanos = new long[64];
+    private long allocatedBytes;
+    private int count;
+    String note = "";
+
+    LatencyStats(String label) {
+        this.label = label;
+    }
+
+    void record(long elapsedNanos, long allocated) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+        allocatedBytes += allocated;
+    }
+
+    int count() {
+        return count;
+    }
+
+    double percentileMillis(double percentile) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(rank, count - 1))] / 1_000_000.0;
+    }
+
+    double allocatedKbPerOp() {
+        return count == 0 ? 0 : allocatedBytes / 1024.0 / count;
+    }
+
+    static String header() {
+        return String.format("%-48s %6s %9s %9s %9s %9s %11s  %s",
+                "operation", "n", "p50 ms", "p90 ms", "p99 ms", "max ms", "alloc KB/op", "note");
+    }
+
+    String row() {
+        return String.format("%-48s %6d %9.3f %9.3f %9.3f %9.3f %11.1f  %s",
+                label, count, percentileMillis(50), percentileMillis(90), percentileMillis(99),
+                percentileMillis(100), allocatedKbPerOp(), note);
+    }
+
+    String csv() {
+        return String.format("%s,%d,%.4f,%.4f,%.4f,%.4f,%.2f,%s",
+                label, count, percentileMillis(50), percentileMillis(90), percentileMillis(99),
+                percentileMillis(100), allocatedKbPerOp(), note);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package com.example.packyourbag.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the version 1 schema that the oldest installs have, and checks the migrated schema
+ * against the entities the way Room's open-time validation would
+ */
+final class SchemaCheck {
+    // What Room created for the first release, before any migration ran
+    static final String[] VERSION_1 = {
+            "CREATE TABLE IF NOT EXISTS `trips` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`destination` TEXT, `duration` INTEGER NOT NULL, `tripType` TEXT, `startDate` TEXT, " +
+                    "`endDate` TEXT, `weatherInfo` TEXT, `createdAt` INTEGER NOT NULL, `date` TEXT)",
+            "CREATE TABLE IF NOT EXISTS `packing_items` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`tripId` INTEGER NOT NULL, `itemName` TEXT, `category` TEXT, `isPacked` INTEGER NOT NULL)"
+    };
+
+    private static final String[] FTS_TRIGGERS = {"BEFORE_UPDATE", "BEFORE_DELETE", "AFTER_UPDATE", "AFTER_INSERT"};
+
+    private SchemaCheck() {
+    }
+
+    static void createVersion1(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : VERSION_1) {
+                statement.execute(sql);
+            }
+            statement.execute("PRAGMA user_version = 1");
+        }
+    }
+
+    /**
+     * Differences between the database and the entity sources; empty when Room would accept it
+     */
+    static List<String> verify(Connection connection, SourceModel model) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        Map<String, String> objects = schemaObjects(connection);
+
+        for (SourceModel.Entity entity : model.entities) {
+            String tableSql = objects.get("table:" + entity.table);
+            if (tableSql == null) {
+                problems.add("Missing table " + entity.table);
+                continue;
+            }
+
+            Map<String, String[]> columns = columns(connection, entity.table);
+            for (SourceModel.Field field : entity.fields) {
+                String[] column = columns.remove(field.name);
+                if (column == null) {
+                    problems.add(entity.table + " is missing column " + field.name);
+                } else if (!entity.isFts() && !column[0].equalsIgnoreCase(affinity(field.type))) {
+                    problems.add(entity.table + "." + field.name + " is " + column[0] + ", entity expects " + affinity(field.type));
+                } else if (!entity.isFts() && (isPrimitive(field.type) || field.nonNull) && !column[1].equals("1")) {
+                    problems.add(entity.table + "." + field.name + " should be NOT NULL");
+                }
+            }
+            for (String extra : columns.keySet()) {
+                problems.add(entity.table + " has column " + extra + " that the entity doesn't declare");
+            }
+
+            if (entity.isFts()) {
+                if (!tableSql.toUpperCase().contains("USING FTS4")) {
+                    problems.add(entity.table + " is not an FTS4 table");
+                }
+                for (String trigger : FTS_TRIGGERS) {
+                    if (!objects.containsKey("trigger:room_fts_content_sync_" + entity.table + "_" + trigger)) {
+                        problems.add("Missing trigger room_fts_content_sync_" + entity.table + "_" + trigger);
+                    }
+                }
+                continue;
+            }
+
+            Set<String> declared = new HashSet<>();
+            Set<String> unique = uniqueIndices(connection, entity.table);
+            for (SourceModel.Index index : entity.indices) {
+                String name = SourceModel.Entity.indexName(entity.table, index.columns);
+                declared.add(name);
+                if (!objects.containsKey("index:" + name)) {
+                    problems.add("Missing index " + name);
+                } else if (!indexColumns(connection, name).equals(index.columns)) {
+                    problems.add("Index " + name + " is on " + indexColumns(connection, name) + ", entity declares " + index.columns);
+                } else if (index.unique != unique.contains(name)) {
+                    problems.add("Index " + name + (index.unique ? " should" : " should not") + " be UNIQUE");
+                }
+            }
+
+            Set<String> foreignKeys = foreignKeys(connection, entity.table);
+            for (SourceModel.ForeignKey foreignKey : entity.foreignKeys) {
+                String parent = model.entityForClass(foreignKey.parentClass).table;
+                if (!foreignKeys.remove(foreignKey.childColumn + "->" + parent + "." + foreignKey.parentColumn)) {
+                    problems.add(entity.table + "." + foreignKey.childColumn + " is missing its foreign key to " + parent);
+                }
+            }
+            for (String extra : foreignKeys) {
+                problems.add(entity.table + " has foreign key " + extra + " that the entity doesn't declare");
+            }
+            for (String key : objects.keySet()) {
+                String prefix = "index:index_" + entity.table + "_";
+                if (key.startsWith(prefix) && !declared.contains(key.substring("index:".length()))) {
+                    problems.add("Stale index " + key.substring("index:".length()) + " left by a migration");
+                }
+            }
+        }
+        return problems;
+    }
+
+    // Room's column affinity for a field type
+    static String affinity(String javaType) {
+        switch (javaType) {
+            case "long": case "int": case "short": case "byte": case "boolean":
+            case "Long": case "Integer": case "Short": case "Byte": case "Boolean":
+                return "INTEGER";
+            case "double": case "float": case "Double": case "Float":
+                return "REAL";
+            case "byte[]":
+                return "BLOB";
+            default:
+                return "TEXT";
+        }
+    }
+
+    static boolean isPrimitive(String javaType) {
+        return Character.isLowerCase(javaType.charAt(0)) && !javaType.equals("byte[]");
+    }
+
+    // "type:name" -> sql for every table, index and trigger
+    private static Map<String, String> schemaObjects(Connection connection) throws SQLException {
+        Map<String, String> objects = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT type, name, sql FROM sqlite_master")) {
+            while (rows.next()) {
+                objects.put(rows.getString(1) + ":" + rows.getString(2), String.valueOf(rows.getString(3)));
+            }
+        }
+        return objects;
+    }
+
+    // name -> {declared type, notnull}
+    private static Map<String, String[]> columns(Connection connection, String table) throws SQLException {
+        Map<String, String[]> columns = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("PRAGMA table_info(`" + table + "`)")) {
+            while (rows.next()) {
+                columns.put(rows.getString("name"), new String[]{rows.getString("type"), rows.getString("notnull")});
+            }
+        }
+        return columns;
+    }
+
+    private static Set<String> uniqueIndices(Connection connection, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("PRAGMA index_list(`" + table + "`)")) {
+            while (rows.next()) {
+                if (rows.getInt("unique") == 1) names.add(rows.getString("name"));
+            }
+        }
+        return names;
+    }
+
+    // "childColumn->parentTable.parentColumn" for every foreign key of the table
+    private static Set<String> foreignKeys(Connection connection, String table) throws SQLException {
+        Set<String> keys = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("PRAGMA foreign_key_list(`" + table + "`)")) {
+            while (rows.next()) {
+                keys.add(rows.getString("from") + "->" + rows.getString("table") + "." + rows.getString("to"));
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> indexColumns(Connection connection, String index) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("PRAGMA index_info(`" + index + "`)")) {
+            while (rows.next()) {
+                columns.add(rows.getString("name"));
+            }
+        }
+        return columns;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,349 @@
+package com.example.packyourbag.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the Room entities and DAO queries straight from the app sources, so every query
+ * and column added to the app is picked up by the benchmark without editing it here
+ */
+final class SourceModel {
+    private static final Pattern ENTITY_TABLE = Pattern.compile("@Entity\\(\\s*tableName\\s*=\\s*\"(\\w+)\"");
+    private static final Pattern INDEX = Pattern.compile(
+            "@Index\\(\\s*value\\s*=\\s*\\{([^}]*)}(\\s*,\\s*unique\\s*=\\s*true)?");
+    private static final Pattern FOREIGN_KEY = Pattern.compile(
+            "@ForeignKey\\(\\s*entity\\s*=\\s*(\\w+)\\.class\\s*,\\s*parentColumns\\s*=\\s*\"(\\w+)\"" +
+                    "\\s*,\\s*childColumns\\s*=\\s*\"(\\w+)\"");
+    private static final Pattern FTS_CONTENT = Pattern.compile("@Fts4\\(\\s*contentEntity\\s*=\\s*(\\w+)\\.class");
+    private static final Pattern CLASS_NAME = Pattern.compile("public (?:abstract )?(?:class|interface) (\\w+)");
+    private static final Pattern EXTENDS = Pattern.compile("public interface \\w+ extends ([\\w, ]+?)\\s*\\{");
+    private static final Pattern DATABASE_ENTITIES = Pattern.compile("@Database\\(\\s*entities\\s*=\\s*\\{([^}]*)}");
+    private static final Pattern DATABASE_DAO = Pattern.compile("public abstract (\\w+) \\w+\\(\\);");
+    private static final Pattern FIELD = Pattern.compile(
+            "^    (?:@\\w+\\s+)?public (?!static|final|abstract)([\\w.<>\\[\\]]+) (\\w+)(?: = [^;]+)?;", Pattern.MULTILINE);
+    private static final Pattern METHOD = Pattern.compile(
+            "^\\s*([\\w<>, ]+?)\\s+(\\w+)\\s*\\(([^)]*)\\)\\s*;");
+    // A literal, or a String constant the DAO concatenates into its @Query values
+    private static final Pattern QUERY_PART = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"|\\b([A-Z][A-Z0-9_]+)\\b");
+    private static final Pattern STRING_CONSTANT = Pattern.compile(
+            "^\\s*(?:public )?(?:static )?(?:final )?String ([A-Z][A-Z0-9_]+)\\s*=\\s*([^;]+);", Pattern.MULTILINE);
+
+    static final class Field {
+        final String type;
+        final String name;
+        final boolean nonNull; // @NonNull reference type
+
+        Field(String type, String name, boolean nonNull) {
+            this.type = type;
+            this.name = name;
+            this.nonNull = nonNull;
+        }
+    }
+
+    static final class Index {
+        final List<String> columns;
+        final boolean unique;
+
+        Index(List<String> columns, boolean unique) {
+            this.columns = columns;
+            this.unique = unique;
+        }
+    }
+
+    static final class ForeignKey {
+        final String childColumn;
+        final String parentClass;
+        final String parentColumn;
+
+        ForeignKey(String childColumn, String parentClass, String parentColumn) {
+            this.childColumn = childColumn;
+            this.parentClass = parentClass;
+            this.parentColumn = parentColumn;
+        }
+    }
+
+    static final class Entity {
+        final String className;
+        final String table;
+        final List<Field> fields;
+        final List<Index> indices;
+        final List<ForeignKey> foreignKeys;
+        final String ftsContentClass; // null for regular tables
+
+        Entity(String className, String table, List<Field> fields, List<Index> indices,
+               List<ForeignKey> foreignKeys, String ftsContentClass) {
+            this.className = className;
+            this.table = table;
+            this.fields = fields;
+            this.indices = indices;
+            this.foreignKeys = foreignKeys;
+            this.ftsContentClass = ftsContentClass;
+        }
+
+        boolean isFts() {
+            return ftsContentClass != null;
+        }
+
+        // Room's default index name
+        static String indexName(String table, List<String> columns) {
+            return "index_" + table + "_" + String.join("_", columns);
+        }
+    }
+
+    static final class Param {
+        final String type;
+        final String name;
+
+        Param(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        boolean isList() {
+            return type.startsWith("List<");
+        }
+    }
+
+    static final class DaoQuery {
+        final String dao;
+        final String method;
+        final String returnType;
+        final String sql;
+        final List<Param> params;
+
+        DaoQuery(String dao, String method, String returnType, String sql, List<Param> params) {
+            this.dao = dao;
+            this.method = method;
+            this.returnType = returnType;
+            this.sql = sql;
+            this.params = params;
+        }
+
+        String label() {
+            return dao + "." + method;
+        }
+
+        boolean isWrite() {
+            String verb = sql.trim().split("\\s+")[0].toUpperCase();
+            return verb.equals("UPDATE") || verb.equals("DELETE") || verb.equals("INSERT");
+        }
+
+        Param param(String name) {
+            for (Param param : params) {
+                if (param.name.equals(name)) return param;
+            }
+            throw new IllegalStateException(label() + " uses :" + name + " but has no such parameter");
+        }
+    }
+
+    final List<Entity> entities = new ArrayList<>();
+    final List<DaoQuery> queries = new ArrayList<>();
+
+    /**
+     * Entities and DAOs of PackingDatabase; other Room databases in the app are left out
+     */
+    static SourceModel load(Path appSourceRoot) throws IOException {
+        String database = read(appSourceRoot.resolve("Database").resolve("PackingDatabase.java"));
+        Matcher entityList = DATABASE_ENTITIES.matcher(database);
+        if (!entityList.find()) {
+            throw new IOException("No @Database entities in PackingDatabase.java");
+        }
+        List<String> entityClasses = Arrays.stream(entityList.group(1).split(","))
+                .map(entity -> entity.trim().replace(".class", ""))
+                .collect(Collectors.toList());
+        List<String> daoClasses = new ArrayList<>();
+        Matcher dao = DATABASE_DAO.matcher(database);
+        while (dao.find()) {
+            daoClasses.add(dao.group(1));
+        }
+
+        SourceModel model = new SourceModel();
+        for (Path file : javaFiles(appSourceRoot.resolve("DatabaseEntities"))) {
+            Entity entity = parseEntity(read(file));
+            if (entity != null && entityClasses.contains(entity.className)) model.entities.add(entity);
+        }
+
+        // DAO interfaces the database returns, plus the interfaces they extend
+        Map<String, String> daoSources = new HashMap<>();
+        for (Path file : javaFiles(appSourceRoot.resolve("DAOInterfaces"))) {
+            String source = read(file);
+            Matcher className = CLASS_NAME.matcher(source);
+            if (className.find()) daoSources.put(className.group(1), source);
+        }
+        for (int i = 0; i < daoClasses.size(); i++) {
+            Matcher parents = EXTENDS.matcher(daoSources.getOrDefault(daoClasses.get(i), ""));
+            if (!parents.find()) continue;
+            for (String parent : parents.group(1).split(",")) {
+                if (!daoClasses.contains(parent.trim())) daoClasses.add(parent.trim());
+            }
+        }
+        // A DAO may build its queries from another DAO's constants (PackingItemDao.SELECT_LIST_ITEMS)
+        Map<String, String> constants = new HashMap<>();
+        for (String source : daoSources.values()) {
+            Matcher constant = STRING_CONSTANT.matcher(source);
+            while (constant.find()) {
+                constants.put(constant.group(1), concatenate(constant.group(2), constants));
+            }
+        }
+        for (String daoClass : daoClasses) {
+            if (daoSources.containsKey(daoClass)) {
+                model.queries.addAll(parseQueries(daoSources.get(daoClass), constants));
+            }
+        }
+        if (model.entities.isEmpty() || model.queries.isEmpty()) {
+            throw new IOException("No entities or DAO queries found under " + appSourceRoot);
+        }
+        return model;
+    }
+
+    Entity entity(String table) {
+        for (Entity entity : entities) {
+            if (entity.table.equals(table)) return entity;
+        }
+        throw new IllegalArgumentException("No entity for table " + table);
+    }
+
+    Entity entityForClass(String className) {
+        for (Entity entity : entities) {
+            if (entity.className.equals(className)) return entity;
+        }
+        throw new IllegalArgumentException("No entity class " + className);
+    }
+
+    DaoQuery query(String label) {
+        for (DaoQuery query : queries) {
+            if (query.label().equals(label)) return query;
+        }
+        throw new IllegalArgumentException("No DAO query " + label);
+    }
+
+    private static Entity parseEntity(String source) {
+        Matcher table = ENTITY_TABLE.matcher(source);
+        if (!table.find()) return null;
+
+        Matcher className = CLASS_NAME.matcher(source);
+        className.find();
+
+        List<Field> fields = new ArrayList<>();
+        Matcher field = FIELD.matcher(source);
+        while (field.find()) {
+            // @Ignore fields are not columns (annotation on the same or the previous line)
+            int lineStart = source.lastIndexOf('\n', Math.max(0, field.start() - 2)) + 1;
+            String annotations = source.substring(lineStart, field.end());
+            if (!annotations.matches("(?s).*@(androidx\\.room\\.)?Ignore\\b.*")) {
+                fields.add(new Field(field.group(1), field.group(2), annotations.matches("(?s).*@NonNull\\b.*")));
+            }
+        }
+
+        List<Index> indices = new ArrayList<>();
+        Matcher index = INDEX.matcher(source);
+        while (index.find()) {
+            indices.add(new Index(Arrays.stream(index.group(1).split(","))
+                    .map(column -> column.trim().replace("\"", ""))
+                    .collect(Collectors.toList()), index.group(2) != null));
+        }
+
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        Matcher foreignKey = FOREIGN_KEY.matcher(source);
+        while (foreignKey.find()) {
+            foreignKeys.add(new ForeignKey(foreignKey.group(3), foreignKey.group(1), foreignKey.group(2)));
+        }
+
+        Matcher fts = FTS_CONTENT.matcher(source);
+        return new Entity(className.group(1), table.group(1), fields, indices, foreignKeys,
+                fts.find() ? fts.group(1) : null);
+    }
+
+    private static List<DaoQuery> parseQueries(String source, Map<String, String> constants) {
+        Matcher className = CLASS_NAME.matcher(source);
+        if (!className.find()) return new ArrayList<>();
+        String dao = className.group(1);
+
+        List<DaoQuery> queries = new ArrayList<>();
+        int from = 0;
+        int start;
+        while ((start = source.indexOf("@Query(", from)) >= 0) {
+            int end = closingParen(source, start + "@Query".length());
+
+            String sql = concatenate(source.substring(start + "@Query(".length(), end), constants);
+
+            Matcher method = METHOD.matcher(source.substring(end + 1));
+            if (!method.find()) {
+                throw new IllegalStateException("Can't read the method after @Query at offset " + start + " in " + dao);
+            }
+            queries.add(new DaoQuery(dao, method.group(2), method.group(1).trim(), sql,
+                    parseParams(method.group(3))));
+            from = end;
+        }
+        return queries;
+    }
+
+    // Value of a "..." + CONSTANT + "..." expression
+    private static String concatenate(String expression, Map<String, String> constants) {
+        StringBuilder value = new StringBuilder();
+        Matcher part = QUERY_PART.matcher(expression);
+        while (part.find()) {
+            if (part.group(1) != null) {
+                value.append(part.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+            } else if (constants.containsKey(part.group(2))) {
+                value.append(constants.get(part.group(2)));
+            } else {
+                throw new IllegalStateException("Unknown constant " + part.group(2) + " in " + expression);
+            }
+        }
+        return value.toString();
+    }
+
+    private static List<Param> parseParams(String params) {
+        List<Param> parsed = new ArrayList<>();
+        if (params.trim().isEmpty()) return parsed;
+
+        for (String param : params.split(",(?![^<]*>)")) {
+            String declaration = param.trim().replaceAll("@\\w+\\s+", "");
+            int split = declaration.lastIndexOf(' ');
+            parsed.add(new Param(declaration.substring(0, split).trim(), declaration.substring(split + 1)));
+        }
+        return parsed;
+    }
+
+    // Index of the ')' matching the '(' at openIndex, skipping parentheses inside string literals
+    private static int closingParen(String source, int openIndex) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = openIndex; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (inString) {
+                if (c == '\\') i++;
+                else if (c == '"') inString = false;
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unbalanced @Query annotation");
+    }
+
+    private static List<Path> javaFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).replace("\r\n", "\n");
+    }
+}
\ No newline at end of file
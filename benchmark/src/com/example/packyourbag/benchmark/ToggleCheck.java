@@ -0,0 +1,102 @@
+package com.example.packyourbag.benchmark;
+
+import com.example.packyourbag.Database.PendingToggles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replays the flush orders PackedStateBuffer can run into against PendingToggles, the
+ * bookkeeping it keeps under its lock, and lists every case where the state left in the
+ * database would differ from the user's last toggle
+ */
+final class ToggleCheck {
+    private static final long TRIP_ID = 1;
+    private static final long ITEM_ID = 7;
+
+    private final List<String> problems = new ArrayList<>();
+
+    private ToggleCheck() {
+    }
+
+    static List<String> run() {
+        ToggleCheck check = new ToggleCheck();
+        check.reToggleDuringFlush();
+        check.overlappingFlushes();
+        check.toggledTwiceDuringFlush();
+        check.failedWrite();
+        return check.problems;
+    }
+
+    // Flush A queues X as packed, the user unpacks X and flush B runs before A has written
+    private void reToggleDuringFlush() {
+        String name = "re-toggle during flush";
+        PendingToggles pending = new PendingToggles();
+        pending.toggle(ITEM_ID, TRIP_ID, true);
+        PendingToggles.Batch flushA = pending.startWrite();
+        expect(name, "flush A writes X packed", flushA.packedIds.equals(Collections.singletonList(ITEM_ID)));
+
+        pending.toggle(ITEM_ID, TRIP_ID, false);
+        expect(name, "flush B keeps X pending", !pending.removeSettled().containsKey(ITEM_ID));
+        expect(name, "flush B leaves X to flush A", pending.startWrite().isEmpty());
+
+        List<Long> unsettled = pending.finishWrite(flushA, true);
+        expect(name, "X needs another flush after A", unsettled.equals(Collections.singletonList(ITEM_ID)));
+        PendingToggles.Batch flushC = pending.startWrite();
+        expect(name, "the next flush writes X unpacked",
+                flushC.unpackedIds.equals(Collections.singletonList(ITEM_ID)) && flushC.packedIds.isEmpty());
+        pending.finishWrite(flushC, true);
+        pending.removeSettled();
+        expect(name, "X is settled once unpacked is stored", pending.isEmpty());
+    }
+
+    // Two flushes on the write pool never write the same item at once
+    private void overlappingFlushes() {
+        String name = "overlapping flushes";
+        PendingToggles pending = new PendingToggles();
+        pending.toggle(ITEM_ID, TRIP_ID, true);
+        PendingToggles.Batch first = pending.startWrite();
+        pending.toggle(ITEM_ID + 1, TRIP_ID, true);
+        PendingToggles.Batch second = pending.startWrite();
+        expect(name, "the second flush only takes the new item",
+                second.packedIds.equals(Collections.singletonList(ITEM_ID + 1)));
+
+        pending.finishWrite(second, true);
+        pending.finishWrite(first, true);
+        pending.removeSettled();
+        expect(name, "both items are settled", pending.isEmpty());
+    }
+
+    // Toggled off and on again while its write ran, so the written state is the latest one
+    private void toggledTwiceDuringFlush() {
+        String name = "toggled twice during flush";
+        PendingToggles pending = new PendingToggles();
+        pending.toggle(ITEM_ID, TRIP_ID, true);
+        PendingToggles.Batch flush = pending.startWrite();
+        pending.toggle(ITEM_ID, TRIP_ID, false);
+        pending.toggle(ITEM_ID, TRIP_ID, true);
+
+        expect(name, "no further flush is needed", pending.finishWrite(flush, true).isEmpty());
+        pending.removeSettled();
+        expect(name, "X is settled", pending.isEmpty());
+    }
+
+    // A write that threw leaves the item pending for the next flush
+    private void failedWrite() {
+        String name = "failed write";
+        PendingToggles pending = new PendingToggles();
+        pending.toggle(ITEM_ID, TRIP_ID, true);
+        pending.finishWrite(pending.startWrite(), false);
+        expect(name, "X stays pending", !pending.removeSettled().containsKey(ITEM_ID));
+        expect(name, "the next flush writes X packed",
+                pending.startWrite().packedIds.equals(Collections.singletonList(ITEM_ID)));
+        expect(name, "the packed count still shows the toggle", pending.packedDelta(TRIP_ID) == 1);
+    }
+
+    private void expect(String name, String what, boolean holds) {
+        if (!holds) {
+            problems.add(name + ": " + what);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+#!/bin/sh
+# Rebuilds the prepackaged suggestion catalog from suggestions.sql (needs the sqlite3 CLI).
+#
+#   catalog/build.sh [output file]    default: assets/databases/suggestions.db
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=${1:-"$ROOT/assets/databases/suggestions.db"}
+
+mkdir -p "$(dirname "$OUT")"
+rm -f "$OUT"
+sqlite3 "$OUT" < "$ROOT/catalog/suggestions.sql"
+# Room copies the file as is, leave no free pages or journal behind
+sqlite3 "$OUT" "VACUUM"
+echo "Wrote $OUT (catalog version $(sqlite3 "$OUT" 'PRAGMA user_version'))"
@@ -0,0 +1,78 @@
+-- Default packing suggestions, built into assets/databases/suggestions.db by build.sh.
+-- The table matches the Suggestion entity exactly (Room validates the copied asset), and
+-- user_version must equal SuggestionDatabase.CATALOG_VERSION. Bump both when rows change.
+--
+-- A row applies when every tag matches the trip:
+--   listName     'smart' for the default trip list, 'fallback' when the AI service is unavailable
+--   tripType     lower-case trip type, '' for any
+--   minTemp/maxTemp  forecast temperature in the half-open range [minTemp, maxTemp)
+--   weather      substring of the forecast condition (lower case), '' for any
+--   minHumidity/minDuration  lower bounds, 0 for any
+-- {days} in an item name is replaced by the trip length, {days_max3} by min(length, 3).
+-- For the fallback list the category is the recommendation group.
+
+PRAGMA user_version = 1;
+
+CREATE TABLE IF NOT EXISTS `suggestions` (`id` INTEGER NOT NULL, `listName` TEXT NOT NULL, `tripType` TEXT NOT NULL, `itemName` TEXT NOT NULL, `category` TEXT NOT NULL, `minTemp` REAL NOT NULL, `maxTemp` REAL NOT NULL, `weather` TEXT NOT NULL, `minHumidity` INTEGER NOT NULL, `minDuration` INTEGER NOT NULL, `sortOrder` INTEGER NOT NULL, PRIMARY KEY(`id`));
+CREATE INDEX IF NOT EXISTS `index_suggestions_listName_tripType_sortOrder` ON `suggestions` (`listName`, `tripType`, `sortOrder`);
+
+INSERT INTO suggestions (id, listName, tripType, itemName, category, minTemp, maxTemp, weather, minHumidity, minDuration, sortOrder) VALUES
+-- Basic items for all trips
+(1, 'smart', '', 'Underwear ({days} pairs)', 'Clothing', -1000, 1000, '', 0, 0, 10),
+(2, 'smart', '', 'Socks ({days} pairs)', 'Clothing', -1000, 1000, '', 0, 0, 20),
+(3, 'smart', '', 'Toothbrush', 'Personal Care', -1000, 1000, '', 0, 0, 30),
+(4, 'smart', '', 'Toothpaste', 'Personal Care', -1000, 1000, '', 0, 0, 40),
+(5, 'smart', '', 'Phone Charger', 'Electronics', -1000, 1000, '', 0, 0, 50),
+(6, 'smart', '', 'Passport/ID', 'Documents', -1000, 1000, '', 0, 0, 60),
+-- Trip-specific suggestions
+(7, 'smart', 'business', 'Formal Suits ({days_max3})', 'Clothing', -1000, 1000, '', 0, 0, 100),
+(8, 'smart', 'business', 'Dress Shoes', 'Clothing', -1000, 1000, '', 0, 0, 110),
+(9, 'smart', 'business', 'Business Cards', 'Documents', -1000, 1000, '', 0, 0, 120),
+(10, 'smart', 'business', 'Laptop', 'Electronics', -1000, 1000, '', 0, 0, 130),
+(11, 'smart', 'business', 'Laptop Charger', 'Electronics', -1000, 1000, '', 0, 0, 140),
+(12, 'smart', 'beach', 'Swimsuit (2)', 'Clothing', -1000, 1000, '', 0, 0, 100),
+(13, 'smart', 'beach', 'Sunscreen SPF 30+', 'Personal Care', -1000, 1000, '', 0, 0, 110),
+(14, 'smart', 'beach', 'Beach Towel', 'Accessories', -1000, 1000, '', 0, 0, 120),
+(15, 'smart', 'beach', 'Flip Flops', 'Clothing', -1000, 1000, '', 0, 0, 130),
+(16, 'smart', 'beach', 'Sunglasses', 'Accessories', -1000, 1000, '', 0, 0, 140),
+(17, 'smart', 'adventure', 'Hiking Boots', 'Clothing', -1000, 1000, '', 0, 0, 100),
+(18, 'smart', 'adventure', 'First Aid Kit', 'Safety', -1000, 1000, '', 0, 0, 110),
+(19, 'smart', 'adventure', 'Water Bottle', 'Accessories', -1000, 1000, '', 0, 0, 120),
+(20, 'smart', 'adventure', 'Backpack', 'Accessories', -1000, 1000, '', 0, 0, 130),
+(21, 'smart', 'adventure', 'Flashlight', 'Safety', -1000, 1000, '', 0, 0, 140),
+-- Temperature bands
+(22, 'smart', '', 'Heavy Winter Jacket', 'Clothing', -1000, 10, '', 0, 0, 200),
+(23, 'smart', '', 'Gloves', 'Clothing', -1000, 10, '', 0, 0, 210),
+(24, 'smart', '', 'Warm Hat', 'Clothing', -1000, 10, '', 0, 0, 220),
+(25, 'smart', '', 'Scarf', 'Clothing', -1000, 10, '', 0, 0, 230),
+(26, 'smart', '', 'Light Jacket', 'Clothing', 10, 20, '', 0, 0, 200),
+(27, 'smart', '', 'Long Pants', 'Clothing', 10, 20, '', 0, 0, 210),
+(28, 'smart', '', 'Closed Shoes', 'Clothing', 10, 20, '', 0, 0, 220),
+(29, 'smart', '', 'Light T-shirts', 'Clothing', 30, 1000, '', 0, 0, 200),
+(30, 'smart', '', 'Shorts', 'Clothing', 30, 1000, '', 0, 0, 210),
+(31, 'smart', '', 'Sandals', 'Clothing', 30, 1000, '', 0, 0, 220),
+(32, 'smart', '', 'Extra Sunscreen', 'Personal Care', 30, 1000, '', 0, 0, 230),
+-- Forecast conditions
+(33, 'smart', '', 'Rain Jacket', 'Clothing', -1000, 1000, 'rain', 0, 0, 300),
+(34, 'smart', '', 'Umbrella', 'Accessories', -1000, 1000, 'rain', 0, 0, 310),
+(35, 'smart', '', 'Waterproof Shoes', 'Clothing', -1000, 1000, 'rain', 0, 0, 320),
+(36, 'smart', '', 'Winter Boots', 'Clothing', -1000, 1000, 'snow', 0, 0, 330),
+(37, 'smart', '', 'Thermal Underwear', 'Clothing', -1000, 1000, 'snow', 0, 0, 340),
+-- Humidity above 70%
+(38, 'smart', '', 'Moisture-wicking Clothes', 'Clothing', -1000, 1000, '', 71, 0, 400),
+(39, 'smart', '', 'Extra Deodorant', 'Personal Care', -1000, 1000, '', 71, 0, 410),
+-- Trip length
+(40, 'smart', '', 'Laundry Bag', 'Accessories', -1000, 1000, '', 0, 8, 500),
+(41, 'smart', '', 'Laundry Detergent Pods', 'Accessories', -1000, 1000, '', 0, 8, 510),
+(42, 'smart', '', 'Extra Toiletries', 'Personal Care', -1000, 1000, '', 0, 15, 520),
+-- Offline fallback for AIRecommendationService
+(43, 'fallback', '', 'Passport/ID', 'Essential', -1000, 1000, '', 0, 0, 10),
+(44, 'fallback', '', 'Phone charger', 'Essential', -1000, 1000, '', 0, 0, 20),
+(45, 'fallback', '', 'Toothbrush', 'Essential', -1000, 1000, '', 0, 0, 30),
+(46, 'fallback', '', 'Toothpaste', 'Essential', -1000, 1000, '', 0, 0, 40),
+(47, 'fallback', '', 'Underwear', 'Essential', -1000, 1000, '', 0, 0, 50),
+(48, 'fallback', '', 'Socks', 'Essential', -1000, 1000, '', 0, 0, 60),
+(49, 'fallback', '', 'Check weather before departure', 'Weather-Specific', -1000, 1000, '', 0, 0, 100),
+(50, 'fallback', '', 'Pack layers for temperature changes', 'Weather-Specific', -1000, 1000, '', 0, 0, 110),
+(51, 'fallback', '', 'First aid kit', 'Safety', -1000, 1000, '', 0, 0, 200),
+(52, 'fallback', '', 'Emergency contacts', 'Safety', -1000, 1000, '', 0, 0, 210);
\ No newline at end of file
@@ -11,7 +11,7 @@ import android.widget.TextView;
 
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
 import com.example.packyourbag.R;
 import com.example.packyourbag.Utils.PackingUtils;
 
@@ -22,22 +22,22 @@ import java.util.List;
 import java.util.Locale;
 
 public class PackingItemAdapter extends RecyclerView.Adapter<PackingItemAdapter.ItemViewHolder> {
-    private List<PackingItem> items = new ArrayList<>();
+    private List<PackingListItem> items = new ArrayList<>();
     private final OnToggleListener toggleListener;
     private final OnDeleteListener deleteListener;
     private final OnEditListener editListener; // New listener for edit functionality
 
     // Three separate listener interfaces
     public interface OnToggleListener {
-        void onItemToggle(PackingItem item);
+        void onItemToggle(PackingListItem item);
     }
 
     public interface OnDeleteListener {
-        void onItemDelete(PackingItem item);
+        void onItemDelete(PackingListItem item);
     }
 
     public interface OnEditListener {
-        void onItemEdit(PackingItem item);
+        void onItemEdit(PackingListItem item);
     }
 
     // Updated constructor with three listeners
@@ -56,7 +56,7 @@ public class PackingItemAdapter extends RecyclerView.Adapter<PackingItemAdapter.
 
     @Override
     public void onBindViewHolder(ItemViewHolder holder, int position) {
-        PackingItem item = items.get(position);
+        PackingListItem item = items.get(position);
 
         holder.textItemName.setText(item.itemName);
         holder.textCategory.setText(item.category);
@@ -104,7 +104,7 @@ public class PackingItemAdapter extends RecyclerView.Adapter<PackingItemAdapter.
         return items.size();
     }
 
-    public void updateItems(List<PackingItem> newItems) {
+    public void updateItems(List<PackingListItem> newItems) {
         this.items = newItems;
         notifyDataSetChanged();
     }
@@ -0,0 +1,68 @@
+package com.example.packyourbag.Adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.packyourbag.DatabaseEntities.SearchHit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchResultAdapter extends RecyclerView.Adapter<SearchResultAdapter.SearchViewHolder> {
+    private List<SearchHit> hits = new ArrayList<>();
+    private OnHitClickListener clickListener;
+
+    public interface OnHitClickListener {
+        void onHitClick(SearchHit hit);
+    }
+
+    public SearchResultAdapter(OnHitClickListener clickListener) {
+        this.clickListener = clickListener;
+    }
+
+    @Override
+    public SearchViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        // Two-line framework row, no custom layout needed
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(android.R.layout.simple_list_item_2, parent, false);
+        return new SearchViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(SearchViewHolder holder, int position) {
+        SearchHit hit = hits.get(position);
+
+        if (hit.isItem()) {
+            holder.textTitle.setText((hit.isPacked ? "✅ " : "⬜ ") + hit.title);
+            holder.textDetail.setText(hit.category + " • " + hit.destination + " (" + hit.startDate + ")");
+        } else {
+            holder.textTitle.setText("🧳 " + hit.title);
+            holder.textDetail.setText("Trip starting " + hit.startDate);
+        }
+
+        holder.itemView.setOnClickListener(v -> clickListener.onHitClick(hit));
+    }
+
+    @Override
+    public int getItemCount() {
+        return hits.size();
+    }
+
+    public void updateHits(List<SearchHit> newHits) {
+        this.hits = newHits;
+        notifyDataSetChanged();
+    }
+
+    static class SearchViewHolder extends RecyclerView.ViewHolder {
+        TextView textTitle, textDetail;
+
+        SearchViewHolder(View itemView) {
+            super(itemView);
+            textTitle = itemView.findViewById(android.R.id.text1);
+            textDetail = itemView.findViewById(android.R.id.text2);
+        }
+    }
+}
\ No newline at end of file
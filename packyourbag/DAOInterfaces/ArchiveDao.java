@@ -0,0 +1,75 @@
+package com.example.packyourbag.DAOInterfaces;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.packyourbag.DatabaseEntities.ArchivedTrip;
+import com.example.packyourbag.DatabaseEntities.ArchivedTripSummary;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.Trip;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves past trips between the live tables and archived_trips (TripArchiver does the encoding)
+@Dao
+public interface ArchiveDao extends CatalogDao {
+    // Oldest first so an interrupted run picks up where it stopped; unknownEpochDay is
+    // PackingUtils.UNKNOWN_EPOCH_DAY, trips without a parseable end date are never archived
+    @Query("SELECT * FROM trips WHERE endEpochDay < :cutoffEpochDay AND endEpochDay != :unknownEpochDay " +
+            "ORDER BY endEpochDay ASC LIMIT :limit")
+    List<Trip> getTripsEndedBefore(long cutoffEpochDay, long unknownEpochDay, int limit);
+
+    @Query(PackingItemDao.SELECT_LIST_ITEMS + "WHERE packing_items.tripId IN (:tripIds) " +
+            "ORDER BY packing_items.tripId, packing_items.id")
+    List<PackingListItem> getItemsForTrips(List<Long> tripIds);
+
+    @Insert
+    void insertArchivedTrips(List<ArchivedTrip> archivedTrips);
+
+    @Query("DELETE FROM packing_items WHERE tripId IN (:tripIds)")
+    void deleteItemsForTrips(List<Long> tripIds);
+
+    @Query("DELETE FROM trips WHERE id IN (:tripIds)")
+    void deleteTrips(List<Long> tripIds);
+
+    // Replace a batch of live trips and their items with their archived copies
+    @Transaction
+    default void moveToArchive(List<ArchivedTrip> archivedTrips) {
+        List<Long> tripIds = new ArrayList<>();
+        for (ArchivedTrip archivedTrip : archivedTrips) {
+            tripIds.add(archivedTrip.id);
+        }
+        insertArchivedTrips(archivedTrips);
+        deleteItemsForTrips(tripIds);
+        deleteTrips(tripIds);
+    }
+
+    // Payloads are left out, listing the archive never decompresses anything
+    @Query("SELECT id, destination, tripType, startDate, endDate, totalItems, packedItems, archivedAt " +
+            "FROM archived_trips ORDER BY startEpochDay DESC")
+    List<ArchivedTripSummary> getArchivedTrips();
+
+    @Query("SELECT * FROM archived_trips WHERE id = :id")
+    ArchivedTrip getArchivedTrip(long id);
+
+    @Query("DELETE FROM archived_trips WHERE id = :id")
+    void deleteArchivedTrip(long id);
+
+    // Trip keeps its archived id
+    @Insert
+    long insertTrip(Trip trip);
+
+    // Put a decoded trip and its items back into the live tables
+    @Transaction
+    default void restoreTrip(Trip trip, List<PackingListItem> items) {
+        insertTrip(trip);
+        for (PackingListItem item : items) {
+            item.tripId = trip.id;
+        }
+        insertNamedItems(items);
+        deleteArchivedTrip(trip.id);
+    }
+}
\ No newline at end of file
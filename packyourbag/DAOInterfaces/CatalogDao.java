@@ -0,0 +1,45 @@
+package com.example.packyourbag.DAOInterfaces;
+
+import androidx.room.Query;
+
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Inserts packing items given by name. Category and item names are added to their lookup
+// tables once and packing_items only stores the ids. TripDao and PackingItemDao both extend
+// this so each can insert items inside its own @Transaction method
+public interface CatalogDao {
+    @Query("INSERT OR IGNORE INTO categories (name) VALUES (:name)")
+    void insertCategoryName(String name);
+
+    @Query("INSERT OR IGNORE INTO item_catalog (name) VALUES (:name)")
+    void insertCatalogName(String name);
+
+    // Both ids are looked up through the unique name indices
+    @Query("INSERT INTO packing_items (tripId, categoryId, catalogItemId, isPacked, createdAt, version) " +
+            "SELECT :tripId, categories.id, item_catalog.id, :isPacked, :createdAt, :version " +
+            "FROM categories, item_catalog " +
+            "WHERE categories.name = :category AND item_catalog.name = :itemName")
+    void insertNamedItem(long tripId, String itemName, String category, boolean isPacked, long createdAt,
+                         int version);
+
+    // Call from a @Transaction method; each distinct name is only inserted once per batch
+    default void insertNamedItems(List<PackingListItem> items) {
+        Set<String> categories = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (PackingListItem item : items) {
+            String category = item.category != null ? item.category : "";
+            String itemName = item.itemName != null ? item.itemName : "";
+            if (categories.add(category)) {
+                insertCategoryName(category);
+            }
+            if (names.add(itemName)) {
+                insertCatalogName(itemName);
+            }
+            insertNamedItem(item.tripId, itemName, category, item.isPacked, item.createdAt, item.version);
+        }
+    }
+}
\ No newline at end of file
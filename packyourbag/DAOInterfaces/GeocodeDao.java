@@ -0,0 +1,48 @@
+package com.example.packyourbag.DAOInterfaces;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.packyourbag.DatabaseEntities.GeocodedPlace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Persistent cache of destination lookups for WeatherService
+@Dao
+public interface GeocodeDao {
+    // Cities don't move; the age limit only lets renamed or mistyped entries fall out
+    long MAX_AGE_MS = 90L * 24 * 60 * 60 * 1000;
+
+    // null when the place was never looked up or the entry is older than freshAfter
+    @Query("SELECT * FROM geocode_cache WHERE query = :query AND fetchedAt >= :freshAfter")
+    GeocodedPlace getPlace(String query, long freshAfter);
+
+    // A newer lookup of the same spelling replaces the old one
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertPlaces(List<GeocodedPlace> places);
+
+    // Places only suggested by the autocomplete fill gaps: a fresh row is left as it is, so
+    // typing doesn't rewrite the same rows on every keystroke. Stale rows are replaced
+    @Transaction
+    default void insertSuggestedPlaces(List<GeocodedPlace> places, long freshAfter) {
+        List<String> queries = new ArrayList<>();
+        for (GeocodedPlace place : places) {
+            queries.add(place.query);
+        }
+        deleteStalePlaces(queries, freshAfter);
+        insertPlacesIfAbsent(places);
+    }
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertPlacesIfAbsent(List<GeocodedPlace> places);
+
+    @Query("DELETE FROM geocode_cache WHERE query IN (:queries) AND fetchedAt < :freshAfter")
+    void deleteStalePlaces(List<String> queries, long freshAfter);
+
+    @Query("DELETE FROM geocode_cache WHERE fetchedAt < :before")
+    int deleteOlderThan(long before);
+}
\ No newline at end of file
@@ -1,40 +1,161 @@
 package com.example.packyourbag.DAOInterfaces;
 
 import androidx.room.Dao;
-import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
-import androidx.room.Update;
+import androidx.room.Transaction;
 
-import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.PackingTemplate;
 
+import java.util.Collections;
 import java.util.List;
 
 @Dao
-public interface PackingItemDao {
-    @Insert
-    void insertItem(PackingItem item);
+public interface PackingItemDao extends CatalogDao {
+    // Item rows with their names joined in from the lookup tables
+    String SELECT_LIST_ITEMS = "SELECT packing_items.id, packing_items.tripId, packing_items.categoryId, " +
+            "packing_items.catalogItemId, item_catalog.name AS itemName, categories.name AS category, " +
+            "packing_items.isPacked, packing_items.createdAt, packing_items.version FROM packing_items " +
+            "JOIN categories ON categories.id = packing_items.categoryId " +
+            "JOIN item_catalog ON item_catalog.id = packing_items.catalogItemId ";
+
+    @Transaction
+    default void insertItem(PackingListItem item) {
+        insertNamedItems(Collections.singletonList(item));
+    }
+
+    // Bulk insert, runs as one transaction
+    @Transaction
+    default void insertAll(List<PackingListItem> items) {
+        insertNamedItems(items);
+    }
+
+    // Lists are ordered by category name, then item name. Both names live in the lookup tables,
+    // so no index on packing_items can give this order: the tripId index finds the trip's rows
+    // and SQLite sorts just those
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId " +
+            "ORDER BY categories.name, item_catalog.name")
+    List<PackingListItem> getItemsForTrip(long tripId);
+
+    // Names only, for duplicate checks
+    @Query("SELECT item_catalog.name FROM packing_items " +
+            "JOIN item_catalog ON item_catalog.id = packing_items.catalogItemId " +
+            "WHERE packing_items.tripId = :tripId")
+    List<String> getItemNamesForTrip(long tripId);
+
+    // Keyset pages in list order, id breaks ties between items with the same name
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId " +
+            "ORDER BY categories.name, item_catalog.name, packing_items.id LIMIT :limit")
+    List<PackingListItem> getItemsPage(long tripId, int limit);
+
+    // Rows after the given one in list order, among the trip's rows found through the tripId index
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId " +
+            "AND categories.name >= :category AND (categories.name > :category " +
+            "OR (categories.name = :category AND (item_catalog.name > :itemName " +
+            "OR (item_catalog.name = :itemName AND packing_items.id > :id)))) " +
+            "ORDER BY categories.name, item_catalog.name, packing_items.id LIMIT :limit")
+    List<PackingListItem> getItemsPageAfter(long tripId, String category, String itemName, long id, int limit);
+
+    // Same pages restricted to one category
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId AND categories.name = :category " +
+            "ORDER BY item_catalog.name, packing_items.id LIMIT :limit")
+    List<PackingListItem> getCategoryItemsPage(long tripId, String category, int limit);
+
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId AND categories.name = :category " +
+            "AND item_catalog.name >= :itemName AND (item_catalog.name > :itemName " +
+            "OR (item_catalog.name = :itemName AND packing_items.id > :id)) " +
+            "ORDER BY item_catalog.name, packing_items.id LIMIT :limit")
+    List<PackingListItem> getCategoryItemsPageAfter(long tripId, String category, String itemName, long id, int limit);
+
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.id = :itemId")
+    PackingListItem getItemById(long itemId);
 
-    @Query("SELECT * FROM packing_items WHERE tripId = :tripId ORDER BY category, itemName")
-    List<PackingItem> getItemsForTrip(long tripId);
+    @Query("UPDATE packing_items SET " +
+            "categoryId = (SELECT id FROM categories WHERE name = :category), " +
+            "catalogItemId = (SELECT id FROM item_catalog WHERE name = :itemName), " +
+            "version = version + 1 " +
+            "WHERE id = :itemId AND version = :expectedVersion")
+    int setItemNames(long itemId, String itemName, String category, int expectedVersion);
 
-    @Query("SELECT * FROM packing_items WHERE id = :itemId")
-    PackingItem getItemById(long itemId);
+    // Renames or recategorises an item unless it changed since it was read at expectedVersion
+    // (returns false then), leaving it at expectedVersion + 1; isPacked is left to the toggle buffer
+    @Transaction
+    default boolean updateItem(long itemId, String itemName, String category, int expectedVersion) {
+        insertCategoryName(category);
+        insertCatalogName(itemName);
+        return setItemNames(itemId, itemName, category, expectedVersion) > 0;
+    }
 
-    @Update
-    void updateItem(PackingItem item);
+    // Narrow update used by the toggle buffer instead of rewriting whole rows. The flag is its
+    // own compare-and-set (rows already in that state are skipped) and it doesn't bump version,
+    // so toggling never makes a pending rename conflict
+    @Query("UPDATE packing_items SET isPacked = :isPacked WHERE id IN (:itemIds) AND isPacked != :isPacked")
+    void setPacked(List<Long> itemIds, boolean isPacked);
 
-    @Delete
-    void deleteItem(PackingItem item);
+    // Apply a batch of buffered toggles in one transaction, chunked to stay under SQLite's bind limit
+    @Transaction
+    default void setPackedStates(List<Long> packedIds, List<Long> unpackedIds) {
+        int chunkSize = 500;
+        for (int i = 0; i < packedIds.size(); i += chunkSize) {
+            setPacked(packedIds.subList(i, Math.min(i + chunkSize, packedIds.size())), true);
+        }
+        for (int i = 0; i < unpackedIds.size(); i += chunkSize) {
+            setPacked(unpackedIds.subList(i, Math.min(i + chunkSize, unpackedIds.size())), false);
+        }
+    }
+
+    @Query("DELETE FROM packing_items WHERE id = :itemId")
+    void deleteItem(long itemId);
 
     @Query("DELETE FROM packing_items WHERE tripId = :tripId")
     void deleteItemsForTrip(long tripId);
 
+    // Templates are copied with INSERT ... SELECT, their items never pass through Java
+    @Insert
+    long insertTemplate(PackingTemplate template);
+
+    @Query("INSERT INTO template_items (templateId, categoryId, catalogItemId) " +
+            "SELECT :templateId, categoryId, catalogItemId FROM packing_items WHERE tripId = :tripId ORDER BY id")
+    void copyItemsToTemplate(long tripId, long templateId);
+
+    // Save the trip's current list as a new template
+    @Transaction
+    default long saveTemplate(long tripId, String name) {
+        long templateId = insertTemplate(new PackingTemplate(name, System.currentTimeMillis()));
+        copyItemsToTemplate(tripId, templateId);
+        return templateId;
+    }
+
+    // Adds the template items the trip doesn't have yet, unpacked and stamped with createdAt
+    @Query("INSERT INTO packing_items (tripId, categoryId, catalogItemId, isPacked, createdAt) " +
+            "SELECT :tripId, categoryId, catalogItemId, 0, :createdAt FROM template_items " +
+            "WHERE templateId = :templateId AND catalogItemId NOT IN " +
+            "(SELECT catalogItemId FROM packing_items WHERE tripId = :tripId) ORDER BY id")
+    void applyTemplate(long templateId, long tripId, long createdAt);
+
+    @Query("SELECT * FROM templates ORDER BY name")
+    List<PackingTemplate> getTemplates();
+
+    @Query("DELETE FROM template_items WHERE templateId = :templateId")
+    void deleteTemplateItems(long templateId);
+
+    @Query("DELETE FROM templates WHERE id = :templateId")
+    void deleteTemplateRow(long templateId);
+
+    @Transaction
+    default void deleteTemplate(long templateId) {
+        deleteTemplateItems(templateId);
+        deleteTemplateRow(templateId);
+    }
+
     // Get items by category for better organization
-    @Query("SELECT * FROM packing_items WHERE tripId = :tripId AND category = :category ORDER BY itemName")
-    List<PackingItem> getItemsByCategoryForTrip(long tripId, String category);
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId AND categories.name = :category " +
+            "ORDER BY item_catalog.name")
+    List<PackingListItem> getItemsByCategoryForTrip(long tripId, String category);
 
     // Get packed/unpacked items
-    @Query("SELECT * FROM packing_items WHERE tripId = :tripId AND isPacked = :isPacked ORDER BY category, itemName")
-    List<PackingItem> getItemsByPackedStatus(long tripId, boolean isPacked);
+    @Query(SELECT_LIST_ITEMS + "WHERE packing_items.tripId = :tripId AND packing_items.isPacked = :isPacked " +
+            "ORDER BY categories.name, item_catalog.name")
+    List<PackingListItem> getItemsByPackedStatus(long tripId, boolean isPacked);
 }
\ No newline at end of file
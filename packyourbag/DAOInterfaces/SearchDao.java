@@ -0,0 +1,38 @@
+package com.example.packyourbag.DAOInterfaces;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.example.packyourbag.DatabaseEntities.SearchHit;
+
+import java.util.List;
+
+@Dao
+public interface SearchDao {
+    // Trip hits from the FTS indices, then item hits, each in the order the FTS lookup returns
+    // them. FTS4 has no bm25() and matchinfo() needs a ranking function registered on the
+    // connection, which Room can't do, so there is no relevance score to sort by; without an
+    // ORDER BY the LIMIT also stops the lookups as soon as it is reached. matchQuery is an FTS
+    // expression (see PackingUtils.toFtsQuery). Items match on their catalog name or their
+    // category, each looked up by integer id
+    @Query("SELECT 'trip' AS kind, trips.id AS tripId, 0 AS itemId, trips.destination AS title, " +
+            "NULL AS category, trips.destination AS destination, trips.startDate AS startDate, " +
+            "0 AS isPacked " +
+            "FROM trips_fts JOIN trips ON trips.id = trips_fts.rowid " +
+            "WHERE trips_fts MATCH :matchQuery " +
+            "UNION ALL " +
+            "SELECT 'item' AS kind, packing_items.tripId AS tripId, packing_items.id AS itemId, " +
+            "item_catalog.name AS title, categories.name AS category, " +
+            "trips.destination AS destination, trips.startDate AS startDate, " +
+            "packing_items.isPacked AS isPacked " +
+            "FROM packing_items " +
+            "JOIN item_catalog ON item_catalog.id = packing_items.catalogItemId " +
+            "JOIN categories ON categories.id = packing_items.categoryId " +
+            "JOIN trips ON trips.id = packing_items.tripId " +
+            "WHERE packing_items.catalogItemId IN " +
+            "(SELECT rowid FROM item_catalog_fts WHERE item_catalog_fts MATCH :matchQuery) " +
+            "OR packing_items.categoryId IN " +
+            "(SELECT rowid FROM categories_fts WHERE categories_fts MATCH :matchQuery) " +
+            "LIMIT :limit")
+    List<SearchHit> search(String matchQuery, int limit);
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.packyourbag.DAOInterfaces;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.example.packyourbag.DatabaseEntities.DurationStats;
+import com.example.packyourbag.DatabaseEntities.ItemFrequency;
+import com.example.packyourbag.DatabaseEntities.PackingStats;
+import com.example.packyourbag.DatabaseEntities.TripStats;
+import com.example.packyourbag.DatabaseEntities.TripTypeStats;
+
+import java.util.List;
+
+// Cross-trip statistics read from the tables the SchemaSql.STATS_TRIGGERS triggers maintain.
+// Each query reads one row per trip type, trip length or top-N item, never the trips themselves
+@Dao
+public interface StatsDao {
+    // Overall totals for the overview statistics, summed over the per-type rows
+    @Query("SELECT COALESCE(SUM(tripCount), 0) AS totalTrips, " +
+            "COALESCE(SUM(completedTrips), 0) AS completedTrips, " +
+            "COALESCE(SUM(totalItems), 0) AS totalItems, COALESCE(SUM(packedItems), 0) AS packedItems " +
+            "FROM trip_type_stats")
+    PackingStats getPackingStats();
+
+    @Query("SELECT COALESCE(SUM(tripCount), 0) AS totalTrips, " +
+            "COALESCE(SUM(completedTrips), 0) AS completedTrips, " +
+            "COALESCE(SUM(totalItems), 0) AS totalItems, COALESCE(SUM(packedItems), 0) AS packedItems " +
+            "FROM trip_type_stats")
+    LiveData<PackingStats> observePackingStats();
+
+    // One trip's counts without reading its items
+    @Query("SELECT * FROM trip_stats WHERE tripId = :tripId")
+    TripStats getTripStats(long tripId);
+
+    // Items that end up on the most lists
+    @Query("SELECT item_catalog.name AS itemName, item_name_stats.itemCount, item_name_stats.unpackedCount " +
+            "FROM item_name_stats JOIN item_catalog ON item_catalog.id = item_name_stats.catalogItemId " +
+            "ORDER BY item_name_stats.itemCount DESC LIMIT :limit")
+    LiveData<List<ItemFrequency>> observeMostListedItems(int limit);
+
+    // Items unpacked right now on the most lists; ongoing and upcoming trips count too, so this
+    // isn't what got left behind on finished trips
+    @Query("SELECT item_catalog.name AS itemName, item_name_stats.itemCount, item_name_stats.unpackedCount " +
+            "FROM item_name_stats JOIN item_catalog ON item_catalog.id = item_name_stats.catalogItemId " +
+            "WHERE item_name_stats.unpackedCount > 0 " +
+            "ORDER BY item_name_stats.unpackedCount DESC LIMIT :limit")
+    LiveData<List<ItemFrequency>> observeMostUnpackedItems(int limit);
+
+    @Query("SELECT * FROM trip_type_stats ORDER BY tripCount DESC")
+    LiveData<List<TripTypeStats>> observeTripTypeStats();
+
+    @Query("SELECT * FROM duration_stats ORDER BY duration")
+    LiveData<List<DurationStats>> observeDurationStats();
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.example.packyourbag.DAOInterfaces;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.example.packyourbag.DatabaseEntities.SuggestedItem;
+
+import java.util.List;
+
+@Dao
+public interface SuggestionDao {
+    // Every catalog row whose tags match the trip, in list order. The (listName, tripType)
+    // index narrows it to the generic rows plus the ones for this trip type
+    @Query("SELECT replace(replace(itemName, '{days}', :duration), '{days_max3}', min(:duration, 3)) " +
+            "AS itemName, category FROM suggestions " +
+            "WHERE listName = :listName AND tripType IN ('', lower(:tripType)) " +
+            "AND :temperature >= minTemp AND :temperature < maxTemp " +
+            "AND :humidity >= minHumidity AND :duration >= minDuration " +
+            "AND instr(lower(:weatherCondition), weather) > 0 " +
+            "ORDER BY sortOrder")
+    List<SuggestedItem> getSuggestions(String listName, String tripType, int duration, double temperature,
+                                       String weatherCondition, int humidity);
+}
\ No newline at end of file
@@ -1,28 +1,76 @@
 package com.example.packyourbag.DAOInterfaces;
 
+import android.database.Cursor;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
-import androidx.room.Update;
+import androidx.room.Transaction;
 
+import com.example.packyourbag.DatabaseEntities.ArchivedTrip;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
 import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.DatabaseEntities.TripProgress;
 
 import java.util.List;
 
 @Dao
-public interface TripDao {
+public interface TripDao extends CatalogDao {
     @Insert
     long insertTrip(Trip trip);
 
+    @Query("DELETE FROM packing_items WHERE tripId = :tripId")
+    void deletePackingItems(long tripId);
+
+    // Create a trip together with its generated packing list in a single transaction
+    @Transaction
+    default long insertTripWithItems(Trip trip, List<PackingListItem> items) {
+        long tripId = insertTrip(trip);
+        for (PackingListItem item : items) {
+            item.tripId = tripId;
+        }
+        insertNamedItems(items);
+        return tripId;
+    }
+
+    // Copies a trip's items to another trip in one statement, unpacked and stamped with createdAt
+    @Query("INSERT INTO packing_items (tripId, categoryId, catalogItemId, isPacked, createdAt) " +
+            "SELECT :newTripId, categoryId, catalogItemId, 0, :createdAt FROM packing_items " +
+            "WHERE tripId = :sourceTripId ORDER BY id")
+    void copyItems(long sourceTripId, long newTripId, long createdAt);
+
+    // Create a trip with the same packing list as sourceTripId, without loading the items
+    @Transaction
+    default long cloneTrip(long sourceTripId, Trip trip) {
+        long tripId = insertTrip(trip);
+        copyItems(sourceTripId, tripId, trip.createdAt);
+        return tripId;
+    }
+
+    // Delete a trip and all of its packing items in a single transaction
+    @Transaction
+    default void deleteTripWithItems(Trip trip) {
+        deletePackingItems(trip.id);
+        deleteTrip(trip);
+    }
+
     @Query("SELECT * FROM trips ORDER BY createdAt DESC")
     List<Trip> getAllTrips();
 
     @Query("SELECT * FROM trips WHERE id = :tripId")
     Trip getTripById(long tripId);
 
-    @Update
-    void updateTrip(Trip trip);
+    // Narrow versioned updates instead of rewriting the whole row. Each applies only while the
+    // trip still has expectedVersion and returns the rows changed, 0 meaning someone else
+    // updated the trip first and the caller should re-read it
+    @Query("UPDATE trips SET weatherInfo = :weatherInfo, version = version + 1 " +
+            "WHERE id = :tripId AND version = :expectedVersion")
+    int setWeatherInfo(long tripId, String weatherInfo, int expectedVersion);
+
+    @Query("UPDATE trips SET destination = :destination, version = version + 1 " +
+            "WHERE id = :tripId AND version = :expectedVersion")
+    int setDestination(long tripId, String destination, int expectedVersion);
 
     @Delete
     void deleteTrip(Trip trip);
@@ -32,10 +80,91 @@ public interface TripDao {
     List<Trip> getTripsByType(String tripType);
 
     // Get upcoming trips
-    @Query("SELECT * FROM trips WHERE startDate >= :currentDate ORDER BY startDate ASC")
-    List<Trip> getUpcomingTrips(String currentDate);
+    @Query("SELECT * FROM trips WHERE startEpochDay >= :todayEpochDay ORDER BY startEpochDay ASC")
+    List<Trip> getUpcomingTrips(long todayEpochDay);
 
     // Get past trips
-    @Query("SELECT * FROM trips WHERE endDate < :currentDate ORDER BY createdAt DESC")
-    List<Trip> getPastTrips(String currentDate);
+    @Query("SELECT * FROM trips WHERE endEpochDay < :todayEpochDay ORDER BY createdAt DESC")
+    List<Trip> getPastTrips(long todayEpochDay);
+
+    // Trips starting within an inclusive range of epoch days
+    @Query("SELECT * FROM trips WHERE startEpochDay BETWEEN :fromEpochDay AND :toEpochDay " +
+            "ORDER BY startEpochDay ASC")
+    List<Trip> getTripsStartingBetween(long fromEpochDay, long toEpochDay);
+
+    // Trips starting within the range that still have unpacked items, with their counts. The
+    // counts come from trip_stats (kept by triggers), so only the trips in range are read
+    @Query("SELECT trips.*, trip_stats.totalItems, trip_stats.packedItems " +
+            "FROM trips JOIN trip_stats ON trip_stats.tripId = trips.id " +
+            "WHERE trips.startEpochDay BETWEEN :fromEpochDay AND :toEpochDay " +
+            "AND trip_stats.packedItems < trip_stats.totalItems " +
+            "ORDER BY trips.startEpochDay ASC")
+    List<TripProgress> getIncompleteTripsStartingBetween(long fromEpochDay, long toEpochDay);
+
+    // Every trip with its total/packed item counts from trip_stats, in createdAt index order
+    @Query("SELECT trips.*, IFNULL(trip_stats.totalItems, 0) AS totalItems, " +
+            "IFNULL(trip_stats.packedItems, 0) AS packedItems " +
+            "FROM trips LEFT JOIN trip_stats ON trip_stats.tripId = trips.id " +
+            "ORDER BY trips.createdAt DESC")
+    List<TripProgress> getTripProgress();
+
+    // Keyset pages, newest first; id breaks ties between trips created in the same millisecond
+    @Query("SELECT * FROM trips ORDER BY createdAt DESC, id DESC LIMIT :limit")
+    List<Trip> getTripsPage(int limit);
+
+    @Query("SELECT * FROM trips WHERE createdAt <= :createdAt " +
+            "AND (createdAt < :createdAt OR (createdAt = :createdAt AND id < :id)) " +
+            "ORDER BY createdAt DESC, id DESC LIMIT :limit")
+    List<Trip> getTripsPageAfter(long createdAt, long id, int limit);
+
+    // Streaming export (TripTransfer): cursors are read row by row instead of into lists,
+    // both in trip id order so items can be merged in after their trip
+    @Query("SELECT * FROM trips ORDER BY id")
+    Cursor getTripsForExport();
+
+    @Query("SELECT packing_items.tripId, item_catalog.name AS itemName, categories.name AS category, " +
+            "packing_items.isPacked, packing_items.createdAt, packing_items.version FROM packing_items " +
+            "JOIN categories ON categories.id = packing_items.categoryId " +
+            "JOIN item_catalog ON item_catalog.id = packing_items.catalogItemId " +
+            "ORDER BY packing_items.tripId, packing_items.id")
+    Cursor getItemsForExport();
+
+    // Archived trips are exported as stored, compressed payload included
+    @Query("SELECT * FROM archived_trips ORDER BY id")
+    Cursor getArchivedTripsForExport();
+
+    @Query("SELECT COUNT(*) FROM trips")
+    int getTripCount();
+
+    @Query("SELECT COUNT(*) FROM packing_items")
+    int getItemCount();
+
+    @Query("SELECT COUNT(*) FROM archived_trips")
+    int getArchivedTripCount();
+
+    // Highest id taken by a live or archived trip (archived trips keep theirs for restore)
+    @Query("SELECT MAX(IFNULL((SELECT MAX(id) FROM trips), 0), " +
+            "IFNULL((SELECT MAX(id) FROM archived_trips), 0))")
+    long getMaxTripIdInUse();
+
+    // Trip ids are AUTOINCREMENT: new trips get ids past the sequence, so raising it reserves
+    // every id up to lastId. The row only exists once a trip has been inserted, otherwise insert it
+    @Query("UPDATE sqlite_sequence SET seq = MAX(seq, :lastId) WHERE name = 'trips'")
+    int raiseTripIdSequence(long lastId);
+
+    @Query("INSERT INTO sqlite_sequence (name, seq) VALUES ('trips', :lastId)")
+    void insertTripIdSequence(long lastId);
+
+    @Query("DELETE FROM packing_items WHERE tripId BETWEEN :fromTripId AND :toTripId")
+    void deleteItemsOfTrips(long fromTripId, long toTripId);
+
+    @Query("DELETE FROM trips WHERE id BETWEEN :fromTripId AND :toTripId")
+    void deleteTrips(long fromTripId, long toTripId);
+
+    // Imported archived trips keep the id they are given, like TripArchiver's
+    @Insert
+    void insertArchivedTrips(List<ArchivedTrip> archivedTrips);
+
+    @Query("DELETE FROM archived_trips WHERE id BETWEEN :fromTripId AND :toTripId")
+    void deleteArchivedTrips(long fromTripId, long toTripId);
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.example.packyourbag.Database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.packyourbag.DAOInterfaces.GeocodeDao;
+import com.example.packyourbag.Utils.PackingUtils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Housekeeping for packing_db, run by DatabaseMaintenanceJobService while the device is idle:
+ * a quick integrity check, a VACUUM INTO snapshot backup, dropping expired geocoding cache
+ * entries, giving free pages back to the file system and refreshing the planner statistics. Page statistics are logged before and after
+ */
+public class DatabaseMaintenance {
+    private static final String TAG = "DatabaseMaintenance";
+    private static final String BACKUP_DIR = "db_backups";
+    private static final int BACKUPS_KEPT = 2;
+    // Free pages are only reclaimed once they make up this share of the file
+    private static final double RECLAIM_FREE_RATIO = 0.1;
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    public static class PageStats {
+        public final long pageSize;
+        public final long pageCount;
+        public final long freePages;
+        public final long walBytes;
+
+        PageStats(long pageSize, long pageCount, long freePages, long walBytes) {
+            this.pageSize = pageSize;
+            this.pageCount = pageCount;
+            this.freePages = freePages;
+            this.walBytes = walBytes;
+        }
+
+        public long fileBytes() {
+            return pageSize * pageCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d pages of %d bytes (%d free), %d KB + %d KB WAL",
+                    pageCount, pageSize, freePages, fileBytes() / 1024, walBytes / 1024);
+        }
+    }
+
+    public static class Report {
+        public PageStats before;
+        public PageStats after;
+        public String integrity;  // "ok", or the problems quick_check found
+        public File backup;       // null if there is no new backup
+        public boolean reclaimed; // free pages were given back
+        public int expiredPlaces; // geocoding cache entries dropped
+    }
+
+    private final Context context;
+    private final PackingDatabase database;
+
+    public DatabaseMaintenance(Context context) {
+        this.context = context.getApplicationContext();
+        this.database = PackingDatabase.getInstance(context);
+    }
+
+    /**
+     * Runs every step; blocks, so call it from a background thread
+     */
+    public Report run() {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        Report report = new Report();
+        report.before = pageStats(db);
+
+        report.integrity = quickCheck(db);
+        if ("ok".equals(report.integrity)) {
+            // A damaged file must never replace a good backup
+            report.backup = backup(db);
+        } else {
+            Log.e(TAG, "quick_check failed: " + report.integrity);
+        }
+
+        report.expiredPlaces = database.geocodeDao()
+                .deleteOlderThan(System.currentTimeMillis() - GeocodeDao.MAX_AGE_MS);
+        report.reclaimed = reclaimFreePages(db, report.before);
+        db.execSQL("ANALYZE");
+        report.after = pageStats(db);
+
+        Log.i(TAG, "Before: " + report.before + "; after: " + report.after
+                + "; integrity " + report.integrity
+                + "; " + report.expiredPlaces + " expired places"
+                + (report.backup != null ? "; backup " + report.backup.getName() : ""));
+        return report;
+    }
+
+    private PageStats pageStats(SupportSQLiteDatabase db) {
+        File wal = new File(db.getPath() + "-wal");
+        return new PageStats(queryLong(db, "PRAGMA page_size"), queryLong(db, "PRAGMA page_count"),
+                queryLong(db, "PRAGMA freelist_count"), wal.exists() ? wal.length() : 0);
+    }
+
+    private static String quickCheck(SupportSQLiteDatabase db) {
+        StringBuilder result = new StringBuilder();
+        try (Cursor cursor = db.query("PRAGMA quick_check(10)")) {
+            while (cursor.moveToNext()) {
+                if (result.length() > 0) result.append("; ");
+                result.append(cursor.getString(0));
+            }
+        }
+        return result.toString();
+    }
+
+    // Consistent copy taken without blocking readers; VACUUM INTO needs SQLite 3.27 (Android 11)
+    private File backup(SupportSQLiteDatabase db) {
+        File dir = new File(context.getFilesDir(), BACKUP_DIR);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Can't create " + dir);
+            return null;
+        }
+        File backup = new File(dir, "packing_db-" + PackingUtils.todayEpochDay() + ".db");
+        if (backup.exists() && !backup.delete()) {
+            Log.w(TAG, "Can't replace " + backup);
+            return null;
+        }
+
+        try {
+            db.execSQL("VACUUM INTO ?", new Object[]{backup.getAbsolutePath()});
+        } catch (SQLException e) {
+            Log.w(TAG, "VACUUM INTO not available, skipping the backup", e);
+            return null;
+        }
+        deleteOldBackups(dir);
+        return backup;
+    }
+
+    private static void deleteOldBackups(File dir) {
+        File[] backups = dir.listFiles();
+        if (backups == null || backups.length <= BACKUPS_KEPT) return;
+        // Newest first
+        Arrays.sort(backups, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = BACKUPS_KEPT; i < backups.length; i++) {
+            if (!backups[i].delete()) Log.w(TAG, "Can't delete old backup " + backups[i]);
+        }
+    }
+
+    // Room creates the file with auto_vacuum off, so the first time this converts it with one full
+    // VACUUM; from then on incremental_vacuum releases the free pages without rewriting the file
+    private static boolean reclaimFreePages(SupportSQLiteDatabase db, PageStats stats) {
+        if (stats.freePages == 0 || stats.freePages < stats.pageCount * RECLAIM_FREE_RATIO) {
+            return false;
+        }
+        if (queryLong(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+        } else {
+            // Each step frees one page, so the cursor has to be read to the end
+            try (Cursor cursor = db.query("PRAGMA incremental_vacuum")) {
+                while (cursor.moveToNext()) {
+                    // Nothing to read
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long queryLong(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
\ No newline at end of file
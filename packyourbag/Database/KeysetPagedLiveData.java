@@ -0,0 +1,175 @@
+package com.example.packyourbag.Database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LiveData over a keyset-paginated query, holding a window of at most MAX_PAGES pages.
+ * loadNextPage() appends a page and, once the window is full, drops its first one;
+ * loadPreviousPage() brings that one back and lets the last go. Only the row before each
+ * dropped page is kept, as the key to read it again from. After a write to one of the tracked
+ * tables the window is re-read in one query (right away while observed, otherwise on the next
+ * onActive), never more than MAX_PAGES pages
+ */
+public class KeysetPagedLiveData<T> extends LiveData<List<T>> {
+    private static final int MAX_PAGES = 4;
+
+    public interface PageLoader<T> {
+        // Runs on the database executor; after is the last loaded row, or null for the first page
+        List<T> loadPage(T after, int limit);
+    }
+
+    private final PackingDatabase database;
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final InvalidationTracker.Observer tableObserver;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Set from the invalidation thread, everything else is only touched on the main thread
+    private final AtomicBoolean invalid = new AtomicBoolean(true);
+    private final List<T> loadedItems = new ArrayList<>();
+    private final List<T> droppedPageStarts = new ArrayList<>(); // The last one starts the window
+    private boolean loading;
+    private boolean reachedEnd;
+    private int startShift;
+    private T windowStart; // Key the loaded rows start after, null for the first row
+    private int generation; // Bumped by every reload so results of older requests are dropped
+
+    public KeysetPagedLiveData(PackingDatabase database, int pageSize, PageLoader<T> loader, String... tables) {
+        this.database = database;
+        this.pageSize = pageSize;
+        this.loader = loader;
+
+        tableObserver = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(Set<String> invalidatedTables) {
+                invalid.set(true);
+                mainHandler.post(() -> {
+                    if (hasActiveObservers()) {
+                        reload();
+                    }
+                });
+            }
+        };
+        database.getInvalidationTracker().addObserver(tableObserver);
+    }
+
+    @Override
+    protected void onActive() {
+        if (invalid.get()) {
+            reload();
+        }
+    }
+
+    /**
+     * Appends the page after the last loaded row, ignored while a load is running or at the end.
+     * A failed read is retried on the next call
+     */
+    public void loadNextPage() {
+        if (loading || reachedEnd) {
+            return;
+        }
+        if (invalid.get()) {
+            reload();
+            return;
+        }
+
+        T after = loadedItems.isEmpty() ? null : loadedItems.get(loadedItems.size() - 1);
+        int requestGeneration = generation;
+        loading = true;
+
+        PackingDatabase.executeQuery(() -> loader.loadPage(after, pageSize), page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            loadedItems.addAll(page);
+            reachedEnd = page.size() < pageSize;
+            startShift = 0;
+            if (loadedItems.size() > MAX_PAGES * pageSize) {
+                windowStart = loadedItems.get(pageSize - 1);
+                droppedPageStarts.add(windowStart);
+                loadedItems.subList(0, pageSize).clear();
+                startShift = pageSize;
+            }
+            setValue(new ArrayList<>(loadedItems));
+        }, error -> {
+            if (requestGeneration == generation) {
+                loading = false;
+            }
+        });
+    }
+
+    /**
+     * Brings back the page dropped last from the start of the window, ignored while a load is
+     * running or when the window already starts at the first row
+     */
+    public void loadPreviousPage() {
+        if (loading || droppedPageStarts.isEmpty()) {
+            return;
+        }
+        if (!invalid.get()) {
+            droppedPageStarts.remove(droppedPageStarts.size() - 1);
+        }
+        reload();
+    }
+
+    // Whether every row is in the window
+    public boolean isFullyLoaded() {
+        return reachedEnd && droppedPageStarts.isEmpty();
+    }
+
+    /**
+     * Rows the latest value dropped from the start of the window, negative when it brought rows
+     * back there, so a list can keep the rows on screen in place
+     */
+    public int getStartShift() {
+        return startShift;
+    }
+
+    /**
+     * Stops tracking table writes, call from the owner's onDestroy
+     */
+    public void release() {
+        database.getInvalidationTracker().removeObserver(tableObserver);
+    }
+
+    // Re-reads the window (at least one page, at most MAX_PAGES) from its start key. After
+    // loadPreviousPage the start has moved back a page, which the window gets in front
+    private void reload() {
+        invalid.set(false);
+        T after = droppedPageStarts.isEmpty() ? null : droppedPageStarts.get(droppedPageStarts.size() - 1);
+        boolean movedBack = after != windowStart;
+        int limit = movedBack
+                ? Math.min(loadedItems.size() + pageSize, MAX_PAGES * pageSize)
+                : Math.max(pageSize, loadedItems.size());
+        int requestGeneration = ++generation;
+        loading = true;
+
+        PackingDatabase.executeQuery(() -> loader.loadPage(after, limit), items -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            windowStart = after;
+            loadedItems.clear();
+            loadedItems.addAll(items);
+            reachedEnd = items.size() < limit;
+            startShift = movedBack ? -pageSize : 0;
+            setValue(new ArrayList<>(loadedItems));
+        }, error -> {
+            if (requestGeneration == generation) {
+                loading = false;
+                invalid.set(true); // Read again on the next load or onActive
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.example.packyourbag.Database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Write-behind buffer for packed/unpacked toggles. A toggle is applied in memory and journaled
+ * right away (a synchronous commit() on the journal thread), and pending changes (coalesced per item id) are written in one transaction after
+ * a short delay or when flush() is called from onPause. The journal is replayed on the next start,
+ * so toggles are not lost if the process dies before the flush. An item stays pending until
+ * the write that stores its latest state has finished (see PendingToggles)
+ */
+public class PackedStateBuffer {
+    private static final String TAG = "PackedStateBuffer";
+    private static final String JOURNAL_PREFS = "packed_state_journal";
+    private static final long FLUSH_DELAY_MS = 1500;
+
+    private static volatile PackedStateBuffer instance;
+
+    private final TripRepository repository;
+    private final SharedPreferences journal;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+    // Journal commits in the order they were decided; commit() is synchronous, apply() would
+    // leave them in memory until some later lifecycle point and a kill before that loses them
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor();
+
+    // Guarded by this; read from the database executor when overlaying query results
+    private final PendingToggles pending = new PendingToggles();
+
+    public static PackedStateBuffer getInstance(Context context) {
+        if (instance == null) {
+            synchronized (PackedStateBuffer.class) {
+                if (instance == null) {
+                    instance = new PackedStateBuffer(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private PackedStateBuffer(Context context) {
+        repository = TripRepository.getInstance(context);
+        journal = context.getSharedPreferences(JOURNAL_PREFS, Context.MODE_PRIVATE);
+        replayJournal();
+    }
+
+    /**
+     * Records the item's new isPacked value (already set on the item) and schedules a flush
+     */
+    public void toggle(PackingListItem item) {
+        synchronized (this) {
+            writeJournalEntry(item.id, pending.toggle(item.id, item.tripId, item.isPacked));
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Overlays unflushed toggles onto items read back from the database
+     */
+    public synchronized void applyPending(List<PackingListItem> items) {
+        if (pending.isEmpty()) return;
+
+        for (PackingListItem item : items) {
+            PendingToggles.Toggle toggle = pending.get(item.id);
+            if (toggle != null) {
+                item.isPacked = toggle.isPacked;
+            }
+        }
+    }
+
+    /**
+     * Difference between the packed count in the database and the one the user sees for a trip
+     */
+    public synchronized int getPackedDelta(long tripId) {
+        return pending.packedDelta(tripId);
+    }
+
+    /**
+     * Writes all pending toggles in one transaction on the database executor. Items whose
+     * previous write hasn't finished are left to the flush that write schedules
+     */
+    public void flush() {
+        mainHandler.removeCallbacks(flushRunnable);
+
+        PendingToggles.Batch batch;
+        synchronized (this) {
+            // Toggled back to the stored state, nothing to write
+            dropSettledToggles();
+            batch = pending.startWrite();
+        }
+        if (batch.isEmpty()) return;
+
+        PackingDatabase.executeWrite(() -> {
+            repository.setPackedStates(batch.packedIds, batch.unpackedIds);
+            synchronized (this) {
+                finishWrite(batch, true);
+            }
+        }, null, error -> {
+            // Still pending and journaled, the next toggle or onPause flush retries them
+            synchronized (this) {
+                finishWrite(batch, false);
+            }
+        });
+    }
+
+    // Caller holds the lock. Items toggled again while the write ran stay pending, their
+    // journal entry is rewritten so a replay compares against the state now stored, and they
+    // get a flush of their own since the ones that ran meanwhile skipped them
+    private void finishWrite(PendingToggles.Batch batch, boolean stored) {
+        List<Long> unsettled = pending.finishWrite(batch, stored);
+        if (stored && !unsettled.isEmpty()) {
+            for (long itemId : unsettled) {
+                writeJournalEntry(itemId, pending.get(itemId));
+            }
+            scheduleFlush();
+        }
+        dropSettledToggles();
+    }
+
+    // Caller holds the lock; removes toggles whose state is already in the database
+    private void dropSettledToggles() {
+        for (Map.Entry<Long, PendingToggles.Toggle> entry : pending.removeSettled().entrySet()) {
+            removeJournalEntry(entry.getKey(), entry.getValue().journalValue);
+        }
+    }
+
+    private void scheduleFlush() {
+        mainHandler.removeCallbacks(flushRunnable);
+        mainHandler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+    }
+
+    // Caller holds the lock, so commits are queued in the order the toggles happened.
+    // Journal value is "tripId:isPacked:dbPacked"
+    private void writeJournalEntry(long itemId, PendingToggles.Toggle toggle) {
+        String key = String.valueOf(itemId);
+        String value = toggle.tripId + ":" + toggle.isPacked + ":" + toggle.dbPacked;
+        toggle.journalValue = value;
+        journalExecutor.execute(() -> {
+            if (!journal.edit().putString(key, value).commit()) {
+                Log.w(TAG, "Could not journal the toggle of item " + key);
+            }
+        });
+    }
+
+    // Only removes the entry if it still holds the value that was settled; a newer toggle of
+    // the same item has replaced it otherwise and must survive
+    private void removeJournalEntry(long itemId, String settledValue) {
+        String key = String.valueOf(itemId);
+        journalExecutor.execute(() -> {
+            if (settledValue == null || settledValue.equals(journal.getString(key, null))) {
+                journal.edit().remove(key).commit();
+            }
+        });
+    }
+
+    private void replayJournal() {
+        Map<String, ?> entries = journal.getAll();
+        if (entries.isEmpty()) return;
+
+        synchronized (this) {
+            for (Map.Entry<String, ?> entry : entries.entrySet()) {
+                try {
+                    String value = String.valueOf(entry.getValue());
+                    String[] parts = value.split(":");
+                    PendingToggles.Toggle toggle = new PendingToggles.Toggle(
+                            Long.parseLong(parts[0]),
+                            Boolean.parseBoolean(parts[1]),
+                            Boolean.parseBoolean(parts[2]));
+                    toggle.journalValue = value;
+                    pending.put(Long.parseLong(entry.getKey()), toggle);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Dropping unreadable journal entry " + entry.getKey(), e);
+                    String key = entry.getKey();
+                    journalExecutor.execute(() -> journal.edit().remove(key).commit());
+                }
+            }
+            Log.d(TAG, "Replaying " + pending.size() + " unflushed toggles");
+        }
+        mainHandler.post(flushRunnable);
+    }
+}
\ No newline at end of file
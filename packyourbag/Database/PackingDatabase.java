@@ -1,28 +1,196 @@
-
 package com.example.packyourbag.Database;
 
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
+import com.example.packyourbag.DAOInterfaces.ArchiveDao;
+import com.example.packyourbag.DAOInterfaces.GeocodeDao;
 import com.example.packyourbag.DAOInterfaces.TripDao;
 import com.example.packyourbag.DAOInterfaces.PackingItemDao;
+import com.example.packyourbag.DAOInterfaces.SearchDao;
+import com.example.packyourbag.DAOInterfaces.StatsDao;
+import com.example.packyourbag.DatabaseEntities.ArchivedTrip;
+import com.example.packyourbag.DatabaseEntities.CatalogItem;
+import com.example.packyourbag.DatabaseEntities.CatalogItemFts;
+import com.example.packyourbag.DatabaseEntities.Category;
+import com.example.packyourbag.DatabaseEntities.CategoryFts;
+import com.example.packyourbag.DatabaseEntities.DurationStats;
+import com.example.packyourbag.DatabaseEntities.GeocodedPlace;
+import com.example.packyourbag.DatabaseEntities.ItemNameStats;
 import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.DatabaseEntities.PackingTemplate;
+import com.example.packyourbag.DatabaseEntities.TemplateItem;
 import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.DatabaseEntities.TripFts;
+import com.example.packyourbag.DatabaseEntities.TripStats;
+import com.example.packyourbag.DatabaseEntities.TripTypeStats;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
-@Database(entities = {Trip.class, PackingItem.class}, version = 2, exportSchema = false)
+@Database(entities = {Trip.class, PackingItem.class, Category.class, CatalogItem.class,
+        CatalogItemFts.class, CategoryFts.class, TripFts.class, ArchivedTrip.class,
+        PackingTemplate.class, TemplateItem.class, TripStats.class, TripTypeStats.class,
+        DurationStats.class, ItemNameStats.class, GeocodedPlace.class},
+        version = SchemaSql.LATEST_VERSION, exportSchema = false)
 public abstract class PackingDatabase extends RoomDatabase {
+    private static final String TAG = "PackingDatabase";
+    private static final String DATABASE_NAME = "packing_db";
+    private static final int NUMBER_OF_THREADS = 4;
+
+    private static volatile PackingDatabase instance;
+
+    // Shared pool for every DAO call so nothing touches SQLite on the UI thread
+    public static final ExecutorService databaseExecutor =
+            Executors.newFixedThreadPool(NUMBER_OF_THREADS, new DatabaseThreadFactory());
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
     public abstract TripDao tripDao();
     public abstract PackingItemDao packingItemDao();
+    public abstract SearchDao searchDao();
+    public abstract ArchiveDao archiveDao();
+    public abstract StatsDao statsDao();
+    public abstract GeocodeDao geocodeDao();
+
+    // Each migration runs the statements listed in SchemaSql
+    public static final Migration MIGRATION_1_2 = sqlMigration(1); // createdAt on packing_items
+    public static final Migration MIGRATION_2_3 = sqlMigration(2); // DAO query indices
+    public static final Migration MIGRATION_3_4 = sqlMigration(3); // epoch-day trip dates
+    public static final Migration MIGRATION_4_5 = sqlMigration(4); // full-text search tables
+    public static final Migration MIGRATION_5_6 = sqlMigration(5); // category and item lookup tables
+    public static final Migration MIGRATION_6_7 = sqlMigration(6); // archived_trips cold storage
+    public static final Migration MIGRATION_7_8 = sqlMigration(7); // row versions
+    public static final Migration MIGRATION_8_9 = sqlMigration(8); // packing templates
+    public static final Migration MIGRATION_9_10 = sqlMigration(9); // materialized statistics
+    public static final Migration MIGRATION_10_11 = sqlMigration(10); // geocoding cache
+    public static final Migration MIGRATION_11_12 = sqlMigration(11); // unknown epoch days below any date
 
-    // Migration from version 1 to 2 (adding createdAt field to packing_items)
-    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+    // Fresh installs skip the migrations, so the stats triggers are added here instead
+    private static final Callback CREATE_STATS_TRIGGERS = new Callback() {
         @Override
-        public void migrate(SupportSQLiteDatabase database) {
-            // Add createdAt column to packing_items table
-            database.execSQL("ALTER TABLE packing_items ADD COLUMN createdAt INTEGER NOT NULL DEFAULT 0");
+        public void onCreate(SupportSQLiteDatabase database) {
+            for (String sql : SchemaSql.STATS_TRIGGERS) {
+                database.execSQL(sql);
+            }
         }
     };
+
+    private static Migration sqlMigration(int fromVersion) {
+        return new Migration(fromVersion, fromVersion + 1) {
+            @Override
+            public void migrate(SupportSQLiteDatabase database) {
+                for (String sql : SchemaSql.forMigration(fromVersion)) {
+                    database.execSQL(sql);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the single process-wide database instance, opening it on first use
+     */
+    public static PackingDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (PackingDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(),
+                                    PackingDatabase.class, DATABASE_NAME)
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+                                    MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9,
+                                    MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12)
+                            .addCallback(CREATE_STATS_TRIGGERS)
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .setQueryExecutor(databaseExecutor)
+                            .setTransactionExecutor(databaseExecutor)
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public interface QueryCallback<T> {
+        void onResult(T result);
+    }
+
+    public interface ErrorCallback {
+        void onError(Exception error);
+    }
+
+    /**
+     * Runs a read on the database executor and delivers the result on the main thread. If the
+     * read throws, onError (if any) gets the exception on the main thread instead
+     */
+    public static <T> void executeQuery(Callable<T> query, QueryCallback<T> callback, ErrorCallback onError) {
+        databaseExecutor.execute(() -> {
+            T result;
+            try {
+                result = query.call();
+            } catch (Exception e) {
+                Log.e(TAG, "Database query failed", e);
+                if (onError != null) {
+                    mainHandler.post(() -> onError.onError(e));
+                }
+                return;
+            }
+            mainHandler.post(() -> callback.onResult(result));
+        });
+    }
+
+    // For reads whose failure the caller can ignore, nothing waits on them
+    public static <T> void executeQuery(Callable<T> query, QueryCallback<T> callback) {
+        executeQuery(query, callback, null);
+    }
+
+    /**
+     * Runs a write on the database executor, then calls onComplete (if any) on the main thread,
+     * or onError (if any) with the exception when the write throws
+     */
+    public static void executeWrite(Runnable write, Runnable onComplete, ErrorCallback onError) {
+        databaseExecutor.execute(() -> {
+            try {
+                write.run();
+            } catch (Exception e) {
+                Log.e(TAG, "Database write failed", e);
+                if (onError != null) {
+                    mainHandler.post(() -> onError.onError(e));
+                }
+                return;
+            }
+            if (onComplete != null) {
+                mainHandler.post(onComplete);
+            }
+        });
+    }
+
+    public static void executeWrite(Runnable write, Runnable onComplete) {
+        executeWrite(write, onComplete, null);
+    }
+
+    public static void executeWrite(Runnable write) {
+        executeWrite(write, null, null);
+    }
+
+    private static class DatabaseThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "packing-db-" + threadCount.getAndIncrement());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.example.packyourbag.Database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-item bookkeeping behind PackedStateBuffer, kept free of Android types so
+ * benchmark/ can check it on the JVM. An item stays pending while a write for it is queued or
+ * running, and at most one write per item is in flight: a flush skips items that are still
+ * being written, and the end of that write decides whether they need another one. Not
+ * thread-safe, PackedStateBuffer calls it under its own lock
+ */
+public final class PendingToggles {
+    private final Map<Long, Toggle> toggles = new HashMap<>();
+
+    public static final class Toggle {
+        public final long tripId;
+        public boolean isPacked;  // Latest state chosen by the user
+        public boolean dbPacked;  // State currently stored in the database
+        public String journalValue; // Last value written to the journal for this item
+        boolean writing; // A write of this item is queued or running
+
+        public Toggle(long tripId, boolean isPacked, boolean dbPacked) {
+            this.tripId = tripId;
+            this.isPacked = isPacked;
+            this.dbPacked = dbPacked;
+        }
+    }
+
+    // Item ids one flush writes, split by the state written
+    public static final class Batch {
+        public final List<Long> packedIds = new ArrayList<>();
+        public final List<Long> unpackedIds = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return packedIds.isEmpty() && unpackedIds.isEmpty();
+        }
+    }
+
+    public boolean isEmpty() {
+        return toggles.isEmpty();
+    }
+
+    public int size() {
+        return toggles.size();
+    }
+
+    public Toggle get(long itemId) {
+        return toggles.get(itemId);
+    }
+
+    // For journal replay
+    public void put(long itemId, Toggle toggle) {
+        toggles.put(itemId, toggle);
+    }
+
+    /**
+     * Records the user's new state for the item and returns its toggle. isPacked is the new
+     * state, so an item seen for the first time was !isPacked in the database
+     */
+    public Toggle toggle(long itemId, long tripId, boolean isPacked) {
+        Toggle toggle = toggles.get(itemId);
+        if (toggle == null) {
+            toggle = new Toggle(tripId, isPacked, !isPacked);
+            toggles.put(itemId, toggle);
+        } else {
+            toggle.isPacked = isPacked;
+        }
+        return toggle;
+    }
+
+    /**
+     * Difference between the packed count in the database and the one the user sees for a trip
+     */
+    public int packedDelta(long tripId) {
+        int delta = 0;
+        for (Toggle toggle : toggles.values()) {
+            if (toggle.tripId == tripId && toggle.isPacked != toggle.dbPacked) {
+                delta += toggle.isPacked ? 1 : -1;
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Takes every item whose state differs from the database and isn't already being written,
+     * and marks them as being written until finishWrite
+     */
+    public Batch startWrite() {
+        Batch batch = new Batch();
+        for (Map.Entry<Long, Toggle> entry : toggles.entrySet()) {
+            Toggle toggle = entry.getValue();
+            if (!toggle.writing && toggle.isPacked != toggle.dbPacked) {
+                toggle.writing = true;
+                (toggle.isPacked ? batch.packedIds : batch.unpackedIds).add(entry.getKey());
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Ends the write of a batch from startWrite; stored tells whether it reached the database.
+     * Returns the ids of the batch that still differ from the database, toggled again while the
+     * write ran or not stored at all, which need another flush
+     */
+    public List<Long> finishWrite(Batch batch, boolean stored) {
+        List<Long> unsettled = new ArrayList<>();
+        finishWrite(batch.packedIds, true, stored, unsettled);
+        finishWrite(batch.unpackedIds, false, stored, unsettled);
+        return unsettled;
+    }
+
+    private void finishWrite(List<Long> itemIds, boolean isPacked, boolean stored, List<Long> unsettled) {
+        for (long itemId : itemIds) {
+            Toggle toggle = toggles.get(itemId);
+            if (toggle == null) continue;
+
+            toggle.writing = false;
+            if (stored) {
+                toggle.dbPacked = isPacked;
+            }
+            if (toggle.isPacked != toggle.dbPacked) {
+                unsettled.add(itemId);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the items whose state is already in the database, by id. Items with
+     * a write in flight stay, whatever their state: the write may still store the old one
+     */
+    public Map<Long, Toggle> removeSettled() {
+        Map<Long, Toggle> settled = new HashMap<>();
+        for (Map.Entry<Long, Toggle> entry : toggles.entrySet()) {
+            Toggle toggle = entry.getValue();
+            if (!toggle.writing && toggle.isPacked == toggle.dbPacked) {
+                settled.put(entry.getKey(), toggle);
+            }
+        }
+        toggles.keySet().removeAll(settled.keySet());
+        return settled;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,344 @@
+package com.example.packyourbag.Database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// SQL run by each migration step. Kept free of Android types so the JVM benchmark in
+// benchmark/ replays exactly the same upgrade path against plain SQLite
+public final class SchemaSql {
+    public static final int LATEST_VERSION = 12;
+
+    // Version 1 to 2 (adding createdAt field to packing_items)
+    public static final List<String> MIGRATION_1_2 = statements(
+            "ALTER TABLE packing_items ADD COLUMN createdAt INTEGER NOT NULL DEFAULT 0");
+
+    // Version 2 to 3 (indices matching the DAO queries, names as Room generates them)
+    public static final List<String> MIGRATION_2_3 = statements(
+            "CREATE INDEX IF NOT EXISTS `index_packing_items_tripId_category_itemName` " +
+                    "ON `packing_items` (`tripId`, `category`, `itemName`)",
+            "CREATE INDEX IF NOT EXISTS `index_packing_items_tripId_isPacked_category_itemName` " +
+                    "ON `packing_items` (`tripId`, `isPacked`, `category`, `itemName`)",
+            "CREATE INDEX IF NOT EXISTS `index_trips_createdAt` ON `trips` (`createdAt`)",
+            "CREATE INDEX IF NOT EXISTS `index_trips_tripType_createdAt` " +
+                    "ON `trips` (`tripType`, `createdAt`)",
+            "CREATE INDEX IF NOT EXISTS `index_trips_startDate` ON `trips` (`startDate`)",
+            "CREATE INDEX IF NOT EXISTS `index_trips_endDate` ON `trips` (`endDate`)");
+
+    // Version 3 to 4 (epoch-day date columns, backfilled from the yyyy-MM-dd strings)
+    public static final List<String> MIGRATION_3_4 = statements(
+            "ALTER TABLE trips ADD COLUMN startEpochDay INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE trips ADD COLUMN endEpochDay INTEGER NOT NULL DEFAULT 0",
+            // julianday() is NULL for unparseable strings, those rows keep the 0 default
+            "UPDATE trips SET startEpochDay = CAST(julianday(startDate) - 2440587.5 AS INTEGER) " +
+                    "WHERE julianday(startDate) IS NOT NULL",
+            "UPDATE trips SET endEpochDay = CAST(julianday(endDate) - 2440587.5 AS INTEGER) " +
+                    "WHERE julianday(endDate) IS NOT NULL",
+            "DROP INDEX IF EXISTS `index_trips_startDate`",
+            "DROP INDEX IF EXISTS `index_trips_endDate`",
+            "CREATE INDEX IF NOT EXISTS `index_trips_startEpochDay` ON `trips` (`startEpochDay`)",
+            "CREATE INDEX IF NOT EXISTS `index_trips_endEpochDay` ON `trips` (`endEpochDay`)");
+
+    // Version 4 to 5 (full-text search). Table and trigger SQL is exactly what Room generates
+    // for the @Fts4 entities, so schema validation passes after the upgrade
+    public static final List<String> MIGRATION_4_5 = concat(
+            ftsTable("packing_items_fts", "packing_items", "itemName", "category"),
+            ftsTable("trips_fts", "trips", "destination"));
+
+    // Version 5 to 6 (category and item names moved to lookup tables). Distinct names are
+    // inserted in sorted order, so existing lists keep their category order, then packing_items
+    // is rebuilt with integer references. The item FTS index moves to the catalog
+    public static final List<String> MIGRATION_5_6 = concat(statements(
+            "CREATE TABLE IF NOT EXISTS `categories` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_categories_name` ON `categories` (`name`)",
+            "CREATE TABLE IF NOT EXISTS `item_catalog` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_item_catalog_name` ON `item_catalog` (`name`)",
+            "INSERT OR IGNORE INTO categories (name) " +
+                    "SELECT DISTINCT COALESCE(category, '') FROM packing_items ORDER BY 1",
+            "INSERT OR IGNORE INTO item_catalog (name) " +
+                    "SELECT DISTINCT COALESCE(itemName, '') FROM packing_items ORDER BY 1",
+            // Dropping packing_items below also drops the old FTS sync triggers
+            "DROP TABLE IF EXISTS `packing_items_fts`",
+            "CREATE TABLE IF NOT EXISTS `packing_items_new` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`tripId` INTEGER NOT NULL, `categoryId` INTEGER NOT NULL, " +
+                    "`catalogItemId` INTEGER NOT NULL, `isPacked` INTEGER NOT NULL, " +
+                    "`createdAt` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`categoryId`) REFERENCES `categories`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION , " +
+                    "FOREIGN KEY(`catalogItemId`) REFERENCES `item_catalog`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION )",
+            "INSERT INTO packing_items_new (id, tripId, categoryId, catalogItemId, isPacked, createdAt) " +
+                    "SELECT packing_items.id, packing_items.tripId, categories.id, item_catalog.id, " +
+                    "packing_items.isPacked, packing_items.createdAt FROM packing_items " +
+                    "JOIN categories ON categories.name = COALESCE(packing_items.category, '') " +
+                    "JOIN item_catalog ON item_catalog.name = COALESCE(packing_items.itemName, '')",
+            "DROP TABLE packing_items",
+            "ALTER TABLE packing_items_new RENAME TO packing_items",
+            "CREATE INDEX IF NOT EXISTS `index_packing_items_tripId_categoryId_catalogItemId` " +
+                    "ON `packing_items` (`tripId`, `categoryId`, `catalogItemId`)",
+            "CREATE INDEX IF NOT EXISTS `index_packing_items_tripId_isPacked_categoryId` " +
+                    "ON `packing_items` (`tripId`, `isPacked`, `categoryId`)",
+            "CREATE INDEX IF NOT EXISTS `index_packing_items_categoryId` ON `packing_items` (`categoryId`)",
+            "CREATE INDEX IF NOT EXISTS `index_packing_items_catalogItemId` " +
+                    "ON `packing_items` (`catalogItemId`)"),
+            ftsTable("item_catalog_fts", "item_catalog", "name"),
+            ftsTable("categories_fts", "categories", "name"));
+
+    // Version 6 to 7 (archived_trips, one compressed row per trip moved out by TripArchiver)
+    public static final List<String> MIGRATION_6_7 = statements(
+            "CREATE TABLE IF NOT EXISTS `archived_trips` (`id` INTEGER NOT NULL, `destination` TEXT, " +
+                    "`tripType` TEXT, `startDate` TEXT, `endDate` TEXT, `startEpochDay` INTEGER NOT NULL, " +
+                    "`endEpochDay` INTEGER NOT NULL, `totalItems` INTEGER NOT NULL, " +
+                    "`packedItems` INTEGER NOT NULL, `archivedAt` INTEGER NOT NULL, `payload` BLOB, " +
+                    "PRIMARY KEY(`id`))",
+            "CREATE INDEX IF NOT EXISTS `index_archived_trips_startEpochDay` " +
+                    "ON `archived_trips` (`startEpochDay`)");
+
+    // Version 7 to 8 (row versions for the optimistic narrow updates)
+    public static final List<String> MIGRATION_7_8 = statements(
+            "ALTER TABLE trips ADD COLUMN version INTEGER NOT NULL DEFAULT 0",
+            "ALTER TABLE packing_items ADD COLUMN version INTEGER NOT NULL DEFAULT 0");
+
+    // Version 8 to 9 (saved packing templates)
+    public static final List<String> MIGRATION_8_9 = statements(
+            "CREATE TABLE IF NOT EXISTS `templates` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`name` TEXT NOT NULL, `createdAt` INTEGER NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS `index_templates_name` ON `templates` (`name`)",
+            "CREATE TABLE IF NOT EXISTS `template_items` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`templateId` INTEGER NOT NULL, `categoryId` INTEGER NOT NULL, " +
+                    "`catalogItemId` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`categoryId`) REFERENCES `categories`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION , " +
+                    "FOREIGN KEY(`catalogItemId`) REFERENCES `item_catalog`(`id`) " +
+                    "ON UPDATE NO ACTION ON DELETE NO ACTION )",
+            "CREATE INDEX IF NOT EXISTS `index_template_items_templateId` ON `template_items` (`templateId`)",
+            "CREATE INDEX IF NOT EXISTS `index_template_items_categoryId` ON `template_items` (`categoryId`)",
+            "CREATE INDEX IF NOT EXISTS `index_template_items_catalogItemId` " +
+                    "ON `template_items` (`catalogItemId`)");
+
+    // Triggers that keep the stats tables in step with trips and packing_items. Three layers:
+    // trips and packing_items write trip_stats and item_name_stats, and trip_stats writes the
+    // per-type and per-duration totals, so each change touches a handful of rows whatever the
+    // table sizes. Missing bucket rows are added with INSERT ... WHERE NOT EXISTS because an OR
+    // clause on the outer statement (Room's INSERT OR ABORT) would override INSERT OR IGNORE here.
+    // Room only creates entity tables, so PackingDatabase also runs these on create
+    public static final List<String> STATS_TRIGGERS = statements(
+            "CREATE TRIGGER IF NOT EXISTS stats_trips_insert AFTER INSERT ON trips BEGIN " +
+                    "INSERT INTO trip_stats (tripId, tripType, duration, totalItems, packedItems) " +
+                    "VALUES (NEW.id, COALESCE(NEW.tripType, ''), NEW.duration, 0, 0); END",
+            "CREATE TRIGGER IF NOT EXISTS stats_trips_delete AFTER DELETE ON trips BEGIN " +
+                    "DELETE FROM trip_stats WHERE tripId = OLD.id; END",
+            "CREATE TRIGGER IF NOT EXISTS stats_trips_bucket AFTER UPDATE OF tripType, duration ON trips " +
+                    "WHEN COALESCE(OLD.tripType, '') != COALESCE(NEW.tripType, '') " +
+                    "OR OLD.duration != NEW.duration BEGIN " +
+                    "UPDATE trip_stats SET tripType = COALESCE(NEW.tripType, ''), duration = NEW.duration " +
+                    "WHERE tripId = NEW.id; END",
+
+            "CREATE TRIGGER IF NOT EXISTS stats_items_insert AFTER INSERT ON packing_items BEGIN " +
+                    "UPDATE trip_stats SET totalItems = totalItems + 1, packedItems = packedItems + NEW.isPacked " +
+                    "WHERE tripId = NEW.tripId; " +
+                    "INSERT INTO item_name_stats (catalogItemId, itemCount, unpackedCount) " +
+                    "SELECT NEW.catalogItemId, 0, 0 WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM item_name_stats WHERE catalogItemId = NEW.catalogItemId); " +
+                    "UPDATE item_name_stats SET itemCount = itemCount + 1, " +
+                    "unpackedCount = unpackedCount + (NEW.isPacked = 0) " +
+                    "WHERE catalogItemId = NEW.catalogItemId; END",
+            "CREATE TRIGGER IF NOT EXISTS stats_items_delete AFTER DELETE ON packing_items BEGIN " +
+                    "UPDATE trip_stats SET totalItems = totalItems - 1, packedItems = packedItems - OLD.isPacked " +
+                    "WHERE tripId = OLD.tripId; " +
+                    "UPDATE item_name_stats SET itemCount = itemCount - 1, " +
+                    "unpackedCount = unpackedCount - (OLD.isPacked = 0) " +
+                    "WHERE catalogItemId = OLD.catalogItemId; " +
+                    "DELETE FROM item_name_stats WHERE catalogItemId = OLD.catalogItemId AND itemCount = 0; END",
+            // A name change in the same statement is settled by stats_items_renamed instead
+            "CREATE TRIGGER IF NOT EXISTS stats_items_packed AFTER UPDATE OF isPacked ON packing_items " +
+                    "WHEN OLD.isPacked != NEW.isPacked BEGIN " +
+                    "UPDATE trip_stats SET packedItems = packedItems + NEW.isPacked - OLD.isPacked " +
+                    "WHERE tripId = NEW.tripId; " +
+                    "UPDATE item_name_stats SET unpackedCount = unpackedCount + OLD.isPacked - NEW.isPacked " +
+                    "WHERE catalogItemId = NEW.catalogItemId AND OLD.catalogItemId = NEW.catalogItemId; END",
+            "CREATE TRIGGER IF NOT EXISTS stats_items_renamed AFTER UPDATE OF catalogItemId ON packing_items " +
+                    "WHEN OLD.catalogItemId != NEW.catalogItemId BEGIN " +
+                    "UPDATE item_name_stats SET itemCount = itemCount - 1, " +
+                    "unpackedCount = unpackedCount - (OLD.isPacked = 0) " +
+                    "WHERE catalogItemId = OLD.catalogItemId; " +
+                    "DELETE FROM item_name_stats WHERE catalogItemId = OLD.catalogItemId AND itemCount = 0; " +
+                    "INSERT INTO item_name_stats (catalogItemId, itemCount, unpackedCount) " +
+                    "SELECT NEW.catalogItemId, 0, 0 WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM item_name_stats WHERE catalogItemId = NEW.catalogItemId); " +
+                    "UPDATE item_name_stats SET itemCount = itemCount + 1, " +
+                    "unpackedCount = unpackedCount + (NEW.isPacked = 0) " +
+                    "WHERE catalogItemId = NEW.catalogItemId; END",
+
+            "CREATE TRIGGER IF NOT EXISTS stats_trip_stats_insert AFTER INSERT ON trip_stats BEGIN " +
+                    "INSERT INTO trip_type_stats (tripType, tripCount, completedTrips, totalItems, packedItems) " +
+                    "SELECT NEW.tripType, 0, 0, 0, 0 WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM trip_type_stats WHERE tripType = NEW.tripType); " +
+                    "UPDATE trip_type_stats SET tripCount = tripCount + 1, " +
+                    "completedTrips = completedTrips + (NEW.totalItems > 0 AND NEW.packedItems = NEW.totalItems), " +
+                    "totalItems = totalItems + NEW.totalItems, packedItems = packedItems + NEW.packedItems " +
+                    "WHERE tripType = NEW.tripType; " +
+                    "INSERT INTO duration_stats (duration, tripCount, totalItems) " +
+                    "SELECT NEW.duration, 0, 0 WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM duration_stats WHERE duration = NEW.duration); " +
+                    "UPDATE duration_stats SET tripCount = tripCount + 1, totalItems = totalItems + NEW.totalItems " +
+                    "WHERE duration = NEW.duration; END",
+            "CREATE TRIGGER IF NOT EXISTS stats_trip_stats_delete AFTER DELETE ON trip_stats BEGIN " +
+                    "UPDATE trip_type_stats SET tripCount = tripCount - 1, " +
+                    "completedTrips = completedTrips - (OLD.totalItems > 0 AND OLD.packedItems = OLD.totalItems), " +
+                    "totalItems = totalItems - OLD.totalItems, packedItems = packedItems - OLD.packedItems " +
+                    "WHERE tripType = OLD.tripType; " +
+                    "DELETE FROM trip_type_stats WHERE tripType = OLD.tripType AND tripCount = 0; " +
+                    "UPDATE duration_stats SET tripCount = tripCount - 1, totalItems = totalItems - OLD.totalItems " +
+                    "WHERE duration = OLD.duration; " +
+                    "DELETE FROM duration_stats WHERE duration = OLD.duration AND tripCount = 0; END",
+            // Packing and unpacking only moves counts within the trip's buckets
+            "CREATE TRIGGER IF NOT EXISTS stats_trip_stats_counts AFTER UPDATE OF totalItems, packedItems " +
+                    "ON trip_stats WHEN OLD.tripType = NEW.tripType AND OLD.duration = NEW.duration BEGIN " +
+                    "UPDATE trip_type_stats SET completedTrips = completedTrips " +
+                    "+ (NEW.totalItems > 0 AND NEW.packedItems = NEW.totalItems) " +
+                    "- (OLD.totalItems > 0 AND OLD.packedItems = OLD.totalItems), " +
+                    "totalItems = totalItems + NEW.totalItems - OLD.totalItems, " +
+                    "packedItems = packedItems + NEW.packedItems - OLD.packedItems " +
+                    "WHERE tripType = NEW.tripType; " +
+                    "UPDATE duration_stats SET totalItems = totalItems + NEW.totalItems - OLD.totalItems " +
+                    "WHERE duration = NEW.duration AND NEW.totalItems != OLD.totalItems; END",
+            "CREATE TRIGGER IF NOT EXISTS stats_trip_stats_bucket AFTER UPDATE ON trip_stats " +
+                    "WHEN OLD.tripType != NEW.tripType OR OLD.duration != NEW.duration BEGIN " +
+                    "UPDATE trip_type_stats SET tripCount = tripCount - 1, " +
+                    "completedTrips = completedTrips - (OLD.totalItems > 0 AND OLD.packedItems = OLD.totalItems), " +
+                    "totalItems = totalItems - OLD.totalItems, packedItems = packedItems - OLD.packedItems " +
+                    "WHERE tripType = OLD.tripType; " +
+                    "DELETE FROM trip_type_stats WHERE tripType = OLD.tripType AND tripCount = 0; " +
+                    "UPDATE duration_stats SET tripCount = tripCount - 1, totalItems = totalItems - OLD.totalItems " +
+                    "WHERE duration = OLD.duration; " +
+                    "DELETE FROM duration_stats WHERE duration = OLD.duration AND tripCount = 0; " +
+                    "INSERT INTO trip_type_stats (tripType, tripCount, completedTrips, totalItems, packedItems) " +
+                    "SELECT NEW.tripType, 0, 0, 0, 0 WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM trip_type_stats WHERE tripType = NEW.tripType); " +
+                    "UPDATE trip_type_stats SET tripCount = tripCount + 1, " +
+                    "completedTrips = completedTrips + (NEW.totalItems > 0 AND NEW.packedItems = NEW.totalItems), " +
+                    "totalItems = totalItems + NEW.totalItems, packedItems = packedItems + NEW.packedItems " +
+                    "WHERE tripType = NEW.tripType; " +
+                    "INSERT INTO duration_stats (duration, tripCount, totalItems) " +
+                    "SELECT NEW.duration, 0, 0 WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM duration_stats WHERE duration = NEW.duration); " +
+                    "UPDATE duration_stats SET tripCount = tripCount + 1, totalItems = totalItems + NEW.totalItems " +
+                    "WHERE duration = NEW.duration; END");
+
+    // Version 9 to 10 (materialized packing statistics, filled from the existing rows before
+    // the triggers take over)
+    public static final List<String> MIGRATION_9_10 = concat(statements(
+            "CREATE TABLE IF NOT EXISTS `trip_stats` (`tripId` INTEGER NOT NULL, `tripType` TEXT NOT NULL, " +
+                    "`duration` INTEGER NOT NULL, `totalItems` INTEGER NOT NULL, " +
+                    "`packedItems` INTEGER NOT NULL, PRIMARY KEY(`tripId`))",
+            "CREATE TABLE IF NOT EXISTS `trip_type_stats` (`tripType` TEXT NOT NULL, " +
+                    "`tripCount` INTEGER NOT NULL, `completedTrips` INTEGER NOT NULL, " +
+                    "`totalItems` INTEGER NOT NULL, `packedItems` INTEGER NOT NULL, PRIMARY KEY(`tripType`))",
+            "CREATE TABLE IF NOT EXISTS `duration_stats` (`duration` INTEGER NOT NULL, " +
+                    "`tripCount` INTEGER NOT NULL, `totalItems` INTEGER NOT NULL, PRIMARY KEY(`duration`))",
+            "CREATE TABLE IF NOT EXISTS `item_name_stats` (`catalogItemId` INTEGER NOT NULL, " +
+                    "`itemCount` INTEGER NOT NULL, `unpackedCount` INTEGER NOT NULL, PRIMARY KEY(`catalogItemId`))",
+            "CREATE INDEX IF NOT EXISTS `index_item_name_stats_itemCount` ON `item_name_stats` (`itemCount`)",
+            "CREATE INDEX IF NOT EXISTS `index_item_name_stats_unpackedCount` " +
+                    "ON `item_name_stats` (`unpackedCount`)",
+            "INSERT INTO trip_stats (tripId, tripType, duration, totalItems, packedItems) " +
+                    "SELECT trips.id, COALESCE(trips.tripType, ''), trips.duration, COUNT(packing_items.id), " +
+                    "COALESCE(SUM(packing_items.isPacked), 0) " +
+                    "FROM trips LEFT JOIN packing_items ON packing_items.tripId = trips.id GROUP BY trips.id",
+            "INSERT INTO trip_type_stats (tripType, tripCount, completedTrips, totalItems, packedItems) " +
+                    "SELECT tripType, COUNT(*), SUM(totalItems > 0 AND packedItems = totalItems), " +
+                    "SUM(totalItems), SUM(packedItems) FROM trip_stats GROUP BY tripType",
+            "INSERT INTO duration_stats (duration, tripCount, totalItems) " +
+                    "SELECT duration, COUNT(*), SUM(totalItems) FROM trip_stats GROUP BY duration",
+            "INSERT INTO item_name_stats (catalogItemId, itemCount, unpackedCount) " +
+                    "SELECT catalogItemId, COUNT(*), SUM(isPacked = 0) FROM packing_items GROUP BY catalogItemId"),
+            STATS_TRIGGERS);
+
+    // Version 10 to 11 (persistent geocoding cache for the weather lookups)
+    public static final List<String> MIGRATION_10_11 = statements(
+            "CREATE TABLE IF NOT EXISTS `geocode_cache` (`query` TEXT NOT NULL, `lat` REAL NOT NULL, " +
+                    "`lon` REAL NOT NULL, `cityName` TEXT NOT NULL, `country` TEXT NOT NULL, " +
+                    "`fetchedAt` INTEGER NOT NULL, PRIMARY KEY(`query`))",
+            "CREATE INDEX IF NOT EXISTS `index_geocode_cache_fetchedAt` ON `geocode_cache` (`fetchedAt`)");
+
+    // Version 11 to 12 (PackingUtils.UNKNOWN_EPOCH_DAY moves from 0 to Long.MIN_VALUE).
+    // toEpochDay only gives 0 for dates starting with 1970-01-01, every other 0 was the old marker
+    public static final List<String> MIGRATION_11_12 = statements(
+            unknownEpochDays("trips", "startEpochDay", "startDate"),
+            unknownEpochDays("trips", "endEpochDay", "endDate"),
+            unknownEpochDays("archived_trips", "startEpochDay", "startDate"),
+            unknownEpochDays("archived_trips", "endEpochDay", "endDate"));
+
+    private SchemaSql() {
+    }
+
+    /**
+     * Statements that migrate the schema from fromVersion to fromVersion + 1
+     */
+    public static List<String> forMigration(int fromVersion) {
+        switch (fromVersion) {
+            case 1: return MIGRATION_1_2;
+            case 2: return MIGRATION_2_3;
+            case 3: return MIGRATION_3_4;
+            case 4: return MIGRATION_4_5;
+            case 5: return MIGRATION_5_6;
+            case 6: return MIGRATION_6_7;
+            case 7: return MIGRATION_7_8;
+            case 8: return MIGRATION_8_9;
+            case 9: return MIGRATION_9_10;
+            case 10: return MIGRATION_10_11;
+            case 11: return MIGRATION_11_12;
+            default:
+                throw new IllegalArgumentException("No migration from version " + fromVersion);
+        }
+    }
+
+    private static String unknownEpochDays(String table, String epochDayColumn, String dateColumn) {
+        return "UPDATE " + table + " SET " + epochDayColumn + " = " + Long.MIN_VALUE +
+                " WHERE " + epochDayColumn + " = 0 AND (" + dateColumn + " IS NULL OR substr(" +
+                dateColumn + ", 1, 10) != '1970-01-01')";
+    }
+
+    private static List<String> ftsTable(String ftsTable, String contentTable, String... columns) {
+        StringBuilder columnDefs = new StringBuilder();
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : columns) {
+            columnDefs.append('`').append(column).append("` TEXT, ");
+            columnList.append(", `").append(column).append('`');
+            newValues.append(", NEW.`").append(column).append('`');
+        }
+
+        String triggerPrefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable;
+        String deleteOld = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        String insertNew = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnList +
+                ") VALUES (NEW.`rowid`" + newValues + "); END";
+
+        return statements(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS `" + ftsTable + "` USING FTS4(" +
+                        columnDefs + "content=`" + contentTable + "`)",
+                triggerPrefix + "_BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "`" + deleteOld,
+                triggerPrefix + "_BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "`" + deleteOld,
+                triggerPrefix + "_AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "`" + insertNew,
+                triggerPrefix + "_AFTER_INSERT AFTER INSERT ON `" + contentTable + "`" + insertNew,
+                // Index the rows that already exist
+                "INSERT INTO `" + ftsTable + "`(`" + ftsTable + "`) VALUES('rebuild')");
+    }
+
+    private static List<String> statements(String... sql) {
+        return Collections.unmodifiableList(Arrays.asList(sql));
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... parts) {
+        List<String> all = new ArrayList<>();
+        for (List<String> part : parts) {
+            all.addAll(part);
+        }
+        return Collections.unmodifiableList(all);
+    }
+}
\ No newline at end of file
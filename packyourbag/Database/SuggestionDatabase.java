@@ -0,0 +1,49 @@
+package com.example.packyourbag.Database;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+import com.example.packyourbag.DAOInterfaces.SuggestionDao;
+import com.example.packyourbag.DatabaseEntities.Suggestion;
+
+/**
+ * Read-only catalog of default packing suggestions, copied from the prepackaged asset on first
+ * open. The asset is built from catalog/suggestions.sql; shipping new items means editing that
+ * file and bumping CATALOG_VERSION together with its user_version, Room then replaces the old
+ * copy with the new asset. Queries run on PackingDatabase's executor
+ */
+@Database(entities = {Suggestion.class}, version = SuggestionDatabase.CATALOG_VERSION, exportSchema = false)
+public abstract class SuggestionDatabase extends RoomDatabase {
+    public static final int CATALOG_VERSION = 1;
+
+    // Values of Suggestion.listName
+    public static final String LIST_SMART = "smart";
+    public static final String LIST_FALLBACK = "fallback";
+
+    private static final String DATABASE_NAME = "suggestions_db";
+    private static final String ASSET_PATH = "databases/suggestions.db";
+
+    private static volatile SuggestionDatabase instance;
+
+    public abstract SuggestionDao suggestionDao();
+
+    public static SuggestionDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SuggestionDatabase.class) {
+                if (instance == null) {
+                    instance = Room.databaseBuilder(context.getApplicationContext(),
+                                    SuggestionDatabase.class, DATABASE_NAME)
+                            .createFromAsset(ASSET_PATH)
+                            // Nothing in the copy is user data, a newer catalog simply replaces it
+                            .fallbackToDestructiveMigration()
+                            .setQueryExecutor(PackingDatabase.databaseExecutor)
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.packyourbag.Database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * LiveData over a single load, for reads that go through TripRepository rather than a Room
+ * query. After a write to one of the tracked tables the load runs again (right away while
+ * observed, otherwise on the next onActive)
+ */
+public class TrackedLiveData<T> extends LiveData<T> {
+    private final PackingDatabase database;
+    private final Callable<T> loader;
+    private final InvalidationTracker.Observer tableObserver;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Set from the invalidation thread, generation is only touched on the main thread
+    private final AtomicBoolean invalid = new AtomicBoolean(true);
+    private int generation; // Bumped by every load so results of older requests are dropped
+
+    public TrackedLiveData(PackingDatabase database, Callable<T> loader, String... tables) {
+        this.database = database;
+        this.loader = loader;
+
+        tableObserver = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(Set<String> invalidatedTables) {
+                invalid.set(true);
+                mainHandler.post(() -> {
+                    if (hasActiveObservers()) {
+                        load();
+                    }
+                });
+            }
+        };
+        database.getInvalidationTracker().addObserver(tableObserver);
+    }
+
+    @Override
+    protected void onActive() {
+        if (invalid.get()) {
+            load();
+        }
+    }
+
+    /**
+     * Stops tracking table writes, call from the owner's onDestroy
+     */
+    public void release() {
+        database.getInvalidationTracker().removeObserver(tableObserver);
+    }
+
+    private void load() {
+        invalid.set(false);
+        int requestGeneration = ++generation;
+        PackingDatabase.executeQuery(loader, value -> {
+            if (requestGeneration == generation) {
+                setValue(value);
+            }
+        }, error -> {
+            // Keep the last value and try again on the next write or onActive
+            if (requestGeneration == generation) {
+                invalid.set(true);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.example.packyourbag.Database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.packyourbag.DAOInterfaces.ArchiveDao;
+import com.example.packyourbag.DatabaseEntities.ArchivedTrip;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.Utils.PackingUtils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for past trips. Trips that ended more than getArchiveAfterDays() ago are moved,
+ * with their items, out of trips/packing_items into archived_trips as one compressed row each,
+ * so the tables every screen reads only hold recent history. Archived trips can be listed
+ * without decompressing anything and restored under their original id
+ */
+public class TripArchiver {
+    private static final String TAG = "TripArchiver";
+    private static final String PREFS = "trip_archive";
+    private static final String KEY_ARCHIVE_AFTER_DAYS = "archive_after_days";
+    private static final String KEY_LAST_RUN_EPOCH_DAY = "last_run_epoch_day";
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 180;
+    private static final int BATCH_SIZE = 50;
+
+    private static volatile TripArchiver instance;
+
+    private final ArchiveDao archiveDao;
+    private final TripRepository repository;
+    private final SharedPreferences prefs;
+
+    public static TripArchiver getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TripArchiver.class) {
+                if (instance == null) {
+                    instance = new TripArchiver(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private TripArchiver(Context context) {
+        PackingDatabase database = PackingDatabase.getInstance(context);
+        archiveDao = database.archiveDao();
+        repository = TripRepository.getInstance(database);
+        prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    public int getArchiveAfterDays() {
+        return prefs.getInt(KEY_ARCHIVE_AFTER_DAYS, DEFAULT_ARCHIVE_AFTER_DAYS);
+    }
+
+    // 0 turns automatic archiving off
+    public void setArchiveAfterDays(int days) {
+        prefs.edit().putInt(KEY_ARCHIVE_AFTER_DAYS, Math.max(0, days)).apply();
+    }
+
+    /**
+     * Archives old trips on the database executor, at most once a day
+     */
+    public void archiveIfDue() {
+        int archiveAfterDays = getArchiveAfterDays();
+        long today = PackingUtils.todayEpochDay();
+        if (archiveAfterDays == 0 || prefs.getLong(KEY_LAST_RUN_EPOCH_DAY, -1) == today) {
+            return;
+        }
+
+        PackingDatabase.executeWrite(() -> {
+            int archived = archiveTripsEndedBefore(today - archiveAfterDays);
+            prefs.edit().putLong(KEY_LAST_RUN_EPOCH_DAY, today).apply();
+            if (archived > 0) {
+                Log.d(TAG, "Archived " + archived + " trips");
+            }
+        });
+    }
+
+    /**
+     * Moves every trip that ended before cutoffEpochDay into the archive, BATCH_SIZE trips per
+     * transaction. Call from a background thread
+     */
+    public int archiveTripsEndedBefore(long cutoffEpochDay) {
+        int archived = 0;
+        int moved;
+        do {
+            moved = repository.runBulkWrite(() -> archiveBatch(cutoffEpochDay));
+            archived += moved;
+        } while (moved == BATCH_SIZE);
+        return archived;
+    }
+
+    private int archiveBatch(long cutoffEpochDay) throws IOException, JSONException {
+        List<Trip> trips = archiveDao.getTripsEndedBefore(cutoffEpochDay,
+                PackingUtils.UNKNOWN_EPOCH_DAY, BATCH_SIZE);
+        if (trips.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> tripIds = new ArrayList<>();
+        for (Trip trip : trips) {
+            tripIds.add(trip.id);
+        }
+        Map<Long, List<PackingListItem>> itemsByTrip = new HashMap<>();
+        for (PackingListItem item : archiveDao.getItemsForTrips(tripIds)) {
+            List<PackingListItem> items = itemsByTrip.get(item.tripId);
+            if (items == null) {
+                items = new ArrayList<>();
+                itemsByTrip.put(item.tripId, items);
+            }
+            items.add(item);
+        }
+
+        long now = System.currentTimeMillis();
+        List<ArchivedTrip> archivedTrips = new ArrayList<>();
+        for (Trip trip : trips) {
+            List<PackingListItem> items = itemsByTrip.get(trip.id);
+            archivedTrips.add(toArchivedTrip(trip, items != null ? items : new ArrayList<>(), now));
+        }
+        archiveDao.moveToArchive(archivedTrips);
+        return trips.size();
+    }
+
+    /**
+     * Moves an archived trip back into the live tables; onRestored gets the trip id, or null if
+     * it was not in the archive, and onError the exception if the restore failed
+     */
+    public void restore(long archivedTripId, PackingDatabase.QueryCallback<Long> onRestored,
+                        PackingDatabase.ErrorCallback onError) {
+        PackingDatabase.executeQuery(() -> repository.runBulkWrite(() -> {
+            ArchivedTrip archivedTrip = archiveDao.getArchivedTrip(archivedTripId);
+            if (archivedTrip == null) {
+                return null;
+            }
+            List<PackingListItem> items = new ArrayList<>();
+            Trip trip = decode(archivedTrip, items);
+            archiveDao.restoreTrip(trip, items);
+            return trip.id;
+        }), onRestored, onError);
+    }
+
+    private static ArchivedTrip toArchivedTrip(Trip trip, List<PackingListItem> items, long archivedAt)
+            throws IOException, JSONException {
+        ArchivedTrip archivedTrip = new ArchivedTrip();
+        archivedTrip.id = trip.id;
+        archivedTrip.destination = trip.destination;
+        archivedTrip.tripType = trip.tripType;
+        archivedTrip.startDate = trip.startDate;
+        archivedTrip.endDate = trip.endDate;
+        archivedTrip.startEpochDay = trip.startEpochDay;
+        archivedTrip.endEpochDay = trip.endEpochDay;
+        archivedTrip.totalItems = items.size();
+        for (PackingListItem item : items) {
+            if (item.isPacked) archivedTrip.packedItems++;
+        }
+        archivedTrip.archivedAt = archivedAt;
+        archivedTrip.payload = encode(trip, items);
+        return archivedTrip;
+    }
+
+    // Trip fields plus one [itemName, category, isPacked, createdAt, version] array per item, gzipped
+    private static byte[] encode(Trip trip, List<PackingListItem> items) throws IOException, JSONException {
+        JSONArray itemArray = new JSONArray();
+        for (PackingListItem item : items) {
+            itemArray.put(new JSONArray()
+                    .put(item.itemName)
+                    .put(item.category)
+                    .put(item.isPacked)
+                    .put(item.createdAt)
+                    .put(item.version));
+        }
+        JSONObject json = new JSONObject()
+                .put("destination", trip.destination)
+                .put("duration", trip.duration)
+                .put("tripType", trip.tripType)
+                .put("startDate", trip.startDate)
+                .put("endDate", trip.endDate)
+                .put("weatherInfo", trip.weatherInfo)
+                .put("createdAt", trip.createdAt)
+                .put("date", trip.date)
+                .put("version", trip.version)
+                .put("items", itemArray);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    // Rebuilds the trip under its archived id and fills items from the payload
+    private static Trip decode(ArchivedTrip archivedTrip, List<PackingListItem> items)
+            throws IOException, JSONException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(archivedTrip.payload))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        JSONObject json = new JSONObject(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+        // put() drops null values, so absent keys are restored as null
+        Trip trip = new Trip(json.optString("destination", null), json.getInt("duration"),
+                json.optString("tripType", null), json.optString("startDate", null),
+                json.optString("endDate", null), json.optString("weatherInfo", null),
+                json.getLong("createdAt"));
+        trip.id = archivedTrip.id;
+        trip.date = json.optString("date", null);
+        // Payloads archived before the versions were kept restore at version 0
+        trip.version = json.optInt("version", 0);
+
+        JSONArray itemArray = json.getJSONArray("items");
+        for (int i = 0; i < itemArray.length(); i++) {
+            JSONArray entry = itemArray.getJSONArray(i);
+            PackingListItem item = new PackingListItem(trip.id, entry.isNull(0) ? null : entry.getString(0),
+                    entry.isNull(1) ? null : entry.getString(1), entry.getBoolean(2));
+            item.createdAt = entry.getLong(3);
+            item.version = entry.optInt(4, 0);
+            items.add(item);
+        }
+        return trip;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,674 @@
+package com.example.packyourbag.Database;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import com.example.packyourbag.DAOInterfaces.PackingItemDao;
+import com.example.packyourbag.DAOInterfaces.StatsDao;
+import com.example.packyourbag.DAOInterfaces.TripDao;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.DatabaseEntities.TripProgress;
+import com.example.packyourbag.DatabaseEntities.TripStats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Bounded in-memory copy of the trips and packing lists that the screens read, shared by all
+ * of them. Every trip and item write goes through here and updates the cached rows in the same
+ * transaction, so moving between screens reads memory instead of re-running the queries.
+ * Writers that change many rows at once (archiving, restore, import) call invalidateAll().
+ * Methods touch the database, so call them on the database executor like the DAOs. Callers
+ * get copies and can change them freely
+ */
+public class TripRepository {
+    private static final int MAX_CACHED_TRIPS = 100;
+    private static final int MAX_RECENT_TRIPS = 200;
+    private static final int MAX_CACHED_LISTS = 20;
+    private static final int MAX_CACHED_LIST_SIZE = 500; // Longer lists are paged from SQLite
+    private static final int MAX_OVERVIEW_TRIPS = 500;
+
+    private static volatile TripRepository instance;
+
+    private final PackingDatabase database;
+    private final TripDao tripDao;
+    private final PackingItemDao itemDao;
+    private final StatsDao statsDao;
+
+    // All guarded by this. Lists are in query order: trips newest first, items by category name,
+    // item name and id, the overview like TripDao.getTripProgress()
+    private final LruCache<Long, Trip> trips = new LruCache<>(MAX_CACHED_TRIPS);
+    private final LruCache<Long, List<PackingListItem>> itemLists = new LruCache<>(MAX_CACHED_LISTS);
+    private final Set<Long> oversizedLists = new HashSet<>();
+    private List<Trip> recentTrips; // Newest trips, null until the first page is read
+    private boolean recentTripsComplete;
+    private List<TripProgress> overview;
+    // Bumped by every change to the cache and around every write; a load only stores what it
+    // read if neither happened while it ran, so rows read before a commit are never kept
+    private int generation;
+    private int writesInFlight;
+
+    public static TripRepository getInstance(Context context) {
+        return getInstance(PackingDatabase.getInstance(context));
+    }
+
+    // For the classes in this package that are handed the database rather than a Context
+    static TripRepository getInstance(PackingDatabase database) {
+        if (instance == null) {
+            synchronized (TripRepository.class) {
+                if (instance == null) {
+                    instance = new TripRepository(database);
+                }
+            }
+        }
+        return instance;
+    }
+
+    private TripRepository(PackingDatabase database) {
+        this.database = database;
+        tripDao = database.tripDao();
+        itemDao = database.packingItemDao();
+        statsDao = database.statsDao();
+    }
+
+    // Reads
+
+    public Trip getTrip(long tripId) {
+        int requestGeneration;
+        synchronized (this) {
+            Trip cached = cachedTrip(tripId);
+            if (cached != null) {
+                return copy(cached);
+            }
+            requestGeneration = generation;
+        }
+
+        Trip trip = tripDao.getTripById(tripId);
+        if (trip != null) {
+            synchronized (this) {
+                if (canStore(requestGeneration)) {
+                    trips.put(tripId, copy(trip));
+                }
+            }
+        }
+        return trip;
+    }
+
+    /**
+     * Keyset page of trips, newest first, after the given trip or from the start when null
+     */
+    public List<Trip> getTripsPage(Trip after, int limit) {
+        int requestGeneration;
+        synchronized (this) {
+            if (recentTrips != null) {
+                int start = after == null ? 0 : indexOfTrip(recentTrips, after.id) + 1;
+                int end = Math.min(start + limit, recentTrips.size());
+                if ((after == null || start > 0) && (end - start == limit || recentTripsComplete)) {
+                    return copyTrips(recentTrips.subList(start, end));
+                }
+            }
+            requestGeneration = generation;
+        }
+
+        List<Trip> page = after == null
+                ? tripDao.getTripsPage(limit)
+                : tripDao.getTripsPageAfter(after.createdAt, after.id, limit);
+
+        synchronized (this) {
+            if (!canStore(requestGeneration)) {
+                return page;
+            }
+            if (after == null) {
+                recentTrips = copyTrips(page);
+                recentTripsComplete = page.size() < limit;
+            } else if (recentTrips != null && !recentTrips.isEmpty()
+                    && recentTrips.get(recentTrips.size() - 1).id == after.id) {
+                recentTrips.addAll(copyTrips(page));
+                recentTripsComplete = page.size() < limit;
+            }
+            if (recentTrips != null && recentTrips.size() > MAX_RECENT_TRIPS) {
+                recentTrips = new ArrayList<>(recentTrips.subList(0, MAX_RECENT_TRIPS));
+                recentTripsComplete = false;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Keyset page of a trip's items in list order, only those in category unless it is null
+     */
+    public List<PackingListItem> getItemsPage(long tripId, String category, PackingListItem after, int limit) {
+        List<PackingListItem> items = getItems(tripId);
+        if (items != null) {
+            int start = after == null ? 0 : indexOfItem(items, after.id) + 1;
+            if (after == null || start > 0) {
+                List<PackingListItem> page = new ArrayList<>();
+                for (int i = start; i < items.size() && page.size() < limit; i++) {
+                    if (category == null || category.equals(items.get(i).category)) {
+                        page.add(items.get(i));
+                    }
+                }
+                return page;
+            }
+        }
+
+        // Too long to keep, or the item to continue after is gone
+        if (category == null) {
+            return after == null
+                    ? itemDao.getItemsPage(tripId, limit)
+                    : itemDao.getItemsPageAfter(tripId, after.category, after.itemName, after.id, limit);
+        }
+        return after == null
+                ? itemDao.getCategoryItemsPage(tripId, category, limit)
+                : itemDao.getCategoryItemsPageAfter(tripId, category, after.itemName, after.id, limit);
+    }
+
+    public List<String> getItemNames(long tripId) {
+        List<PackingListItem> items = getItems(tripId);
+        if (items == null) {
+            return itemDao.getItemNamesForTrip(tripId);
+        }
+        List<String> names = new ArrayList<>(items.size());
+        for (PackingListItem item : items) {
+            names.add(item.itemName);
+        }
+        return names;
+    }
+
+    // Counts come from the cached list, or from the trip_stats row for lists too long to keep
+    public TripProgress getTripProgress(long tripId) {
+        Trip trip = getTrip(tripId);
+        if (trip == null) {
+            return null;
+        }
+
+        TripProgress progress = new TripProgress();
+        progress.trip = trip;
+        List<PackingListItem> items = getItems(tripId);
+        if (items != null) {
+            progress.totalItems = items.size();
+            for (PackingListItem item : items) {
+                if (item.isPacked) progress.packedItems++;
+            }
+        } else {
+            TripStats stats = statsDao.getTripStats(tripId);
+            if (stats != null) {
+                progress.totalItems = stats.totalItems;
+                progress.packedItems = stats.packedItems;
+            }
+        }
+        return progress;
+    }
+
+    // Every trip with its counts, newest first
+    public List<TripProgress> getAllTripProgress() {
+        int requestGeneration;
+        synchronized (this) {
+            if (overview != null) {
+                return copyProgress(overview);
+            }
+            requestGeneration = generation;
+        }
+
+        List<TripProgress> progress = tripDao.getTripProgress();
+        synchronized (this) {
+            if (canStore(requestGeneration) && progress.size() <= MAX_OVERVIEW_TRIPS) {
+                overview = copyProgress(progress);
+            }
+        }
+        return progress;
+    }
+
+    // Trips starting within an inclusive range of epoch days, earliest first. Answered from the
+    // overview when it is cached, by the startEpochDay index otherwise
+    public List<Trip> getTripsStartingBetween(long fromEpochDay, long toEpochDay) {
+        synchronized (this) {
+            if (overview != null) {
+                List<Trip> trips = new ArrayList<>();
+                for (TripProgress progress : startingBetween(overview, fromEpochDay, toEpochDay, false)) {
+                    trips.add(copy(progress.trip));
+                }
+                return trips;
+            }
+        }
+        return tripDao.getTripsStartingBetween(fromEpochDay, toEpochDay);
+    }
+
+    // The same trips, only those that still have unpacked items, with their counts
+    public List<TripProgress> getIncompleteTripsStartingBetween(long fromEpochDay, long toEpochDay) {
+        synchronized (this) {
+            if (overview != null) {
+                return copyProgress(startingBetween(overview, fromEpochDay, toEpochDay, true));
+            }
+        }
+        return tripDao.getIncompleteTripsStartingBetween(fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * LiveData of one trip with its counts, re-read through the cache after trip or item writes
+     */
+    public TrackedLiveData<TripProgress> observeTripProgress(long tripId) {
+        return new TrackedLiveData<>(database, () -> getTripProgress(tripId), "trips", "packing_items");
+    }
+
+    public TrackedLiveData<List<TripProgress>> observeAllTripProgress() {
+        return new TrackedLiveData<>(database, this::getAllTripProgress, "trips", "packing_items");
+    }
+
+    // Writes. Each runs in a transaction and updates or drops the cached copies before it
+    // commits, so the table invalidation that follows already finds them current
+
+    public long insertTrip(Trip trip) {
+        return write(() -> {
+            trip.id = tripDao.insertTrip(trip);
+            synchronized (this) {
+                addTrip(trip, 0, 0);
+                itemLists.put(trip.id, new ArrayList<>());
+            }
+            return trip.id;
+        });
+    }
+
+    public long insertTripWithItems(Trip trip, List<PackingListItem> items) {
+        return write(() -> {
+            trip.id = tripDao.insertTripWithItems(trip, items);
+            int packed = 0;
+            for (PackingListItem item : items) {
+                if (item.isPacked) packed++;
+            }
+            synchronized (this) {
+                addTrip(trip, items.size(), packed); // The list is read on first use, with its ids
+            }
+            return trip.id;
+        });
+    }
+
+    public long cloneTrip(long sourceTripId, Trip trip) {
+        return write(() -> {
+            trip.id = tripDao.cloneTrip(sourceTripId, trip);
+            synchronized (this) {
+                List<PackingListItem> source = itemLists.get(sourceTripId);
+                if (source != null) {
+                    addTrip(trip, source.size(), 0);
+                } else {
+                    addTrip(trip, 0, 0);
+                    overview = null; // Item count unknown
+                }
+            }
+            return trip.id;
+        });
+    }
+
+    public void deleteTripWithItems(Trip trip) {
+        write(() -> {
+            tripDao.deleteTripWithItems(trip);
+            synchronized (this) {
+                generation++;
+                trips.remove(trip.id);
+                itemLists.remove(trip.id);
+                oversizedLists.remove(trip.id);
+                if (recentTrips != null) {
+                    int index = indexOfTrip(recentTrips, trip.id);
+                    if (index >= 0) recentTrips.remove(index);
+                }
+                if (overview != null) {
+                    int index = indexOfProgress(overview, trip.id);
+                    if (index >= 0) overview.remove(index);
+                }
+            }
+            return null;
+        });
+    }
+
+    // Versioned like the TripDao methods: returns 0 when the trip changed since it was read
+    public int setDestination(long tripId, String destination, int expectedVersion) {
+        return write(() -> {
+            int updated = tripDao.setDestination(tripId, destination, expectedVersion);
+            synchronized (this) {
+                updateTrip(tripId, updated, trip -> trip.destination = destination);
+            }
+            return updated;
+        });
+    }
+
+    public int setWeatherInfo(long tripId, String weatherInfo, int expectedVersion) {
+        return write(() -> {
+            int updated = tripDao.setWeatherInfo(tripId, weatherInfo, expectedVersion);
+            synchronized (this) {
+                updateTrip(tripId, updated, trip -> trip.weatherInfo = weatherInfo);
+            }
+            return updated;
+        });
+    }
+
+    // Items of one trip; their ids are only known once read back, so the list is dropped
+    public void insertItems(long tripId, List<PackingListItem> items) {
+        write(() -> {
+            itemDao.insertAll(items);
+            int packed = 0;
+            for (PackingListItem item : items) {
+                if (item.isPacked) packed++;
+            }
+            synchronized (this) {
+                dropItems(tripId);
+                adjustCounts(tripId, items.size(), packed);
+            }
+            return null;
+        });
+    }
+
+    public void deleteItem(PackingListItem item) {
+        write(() -> {
+            itemDao.deleteItem(item.id);
+            synchronized (this) {
+                generation++;
+                List<PackingListItem> items = itemLists.get(item.tripId);
+                int index = items == null ? -1 : indexOfItem(items, item.id);
+                if (index >= 0) {
+                    boolean wasPacked = items.remove(index).isPacked;
+                    adjustCounts(item.tripId, -1, wasPacked ? -1 : 0);
+                } else {
+                    dropItems(item.tripId);
+                    overview = null;
+                }
+            }
+            return null;
+        });
+    }
+
+    // See PackingItemDao.updateItem. edited carries the new names and the version it was read at,
+    // and isn't changed here. A rename can move the item, so the list is re-read
+    public boolean updateItem(PackingListItem edited) {
+        return write(() -> {
+            boolean updated = itemDao.updateItem(edited.id, edited.itemName, edited.category, edited.version);
+            synchronized (this) {
+                dropItems(edited.tripId);
+            }
+            return updated;
+        });
+    }
+
+    // Flushed toggles from PackedStateBuffer
+    public void setPackedStates(List<Long> packedIds, List<Long> unpackedIds) {
+        write(() -> {
+            itemDao.setPackedStates(packedIds, unpackedIds);
+            synchronized (this) {
+                generation++;
+                boolean packedFound = markPacked(packedIds, true);
+                boolean unpackedFound = markPacked(unpackedIds, false);
+                if (!packedFound || !unpackedFound) {
+                    overview = null;
+                }
+            }
+            return null;
+        });
+    }
+
+    public void applyTemplate(long templateId, long tripId, long createdAt) {
+        write(() -> {
+            itemDao.applyTemplate(templateId, tripId, createdAt);
+            synchronized (this) {
+                dropItems(tripId);
+                overview = null;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs a write that changes trips or items without going through the methods above
+     * (archiving, restore, import) in one transaction, and forgets everything cached
+     */
+    public <T> T runBulkWrite(Callable<T> write) {
+        return write(() -> {
+            T result = write.call();
+            invalidateAll();
+            return result;
+        });
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        trips.evictAll();
+        itemLists.evictAll();
+        oversizedLists.clear();
+        recentTrips = null;
+        overview = null;
+    }
+
+    // Cached list in list order, loaded whole on first use; null for lists too long to keep
+    private List<PackingListItem> getItems(long tripId) {
+        int requestGeneration;
+        synchronized (this) {
+            List<PackingListItem> cached = itemLists.get(tripId);
+            if (cached != null) {
+                return copyItems(cached);
+            }
+            if (oversizedLists.contains(tripId)) {
+                return null;
+            }
+            requestGeneration = generation;
+        }
+
+        List<PackingListItem> items = itemDao.getItemsPage(tripId, MAX_CACHED_LIST_SIZE + 1);
+        synchronized (this) {
+            if (items.size() > MAX_CACHED_LIST_SIZE) {
+                oversizedLists.add(tripId);
+                return null;
+            }
+            if (canStore(requestGeneration)) {
+                itemLists.put(tripId, copyItems(items));
+            }
+        }
+        return items;
+    }
+
+    // Runs the write and its cache update in one transaction; the cache is dropped if it fails
+    private <T> T write(Callable<T> write) {
+        synchronized (this) {
+            writesInFlight++;
+            generation++;
+        }
+        try {
+            return database.runInTransaction(write);
+        } catch (RuntimeException e) {
+            invalidateAll();
+            throw e;
+        } finally {
+            synchronized (this) {
+                writesInFlight--;
+                generation++;
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private boolean canStore(int requestGeneration) {
+        return requestGeneration == generation && writesInFlight == 0;
+    }
+
+    private interface TripChange {
+        void apply(Trip trip);
+    }
+
+    // Caller holds the lock
+    private Trip cachedTrip(long tripId) {
+        Trip trip = trips.get(tripId);
+        if (trip == null && recentTrips != null) {
+            int index = indexOfTrip(recentTrips, tripId);
+            if (index >= 0) trip = recentTrips.get(index);
+        }
+        return trip;
+    }
+
+    // Caller holds the lock; applies a successful versioned update to every cached copy
+    private void updateTrip(long tripId, int updated, TripChange change) {
+        generation++;
+        List<Trip> copies = new ArrayList<>();
+        Trip cached = trips.get(tripId);
+        if (cached != null) copies.add(cached);
+        if (recentTrips != null) {
+            int index = indexOfTrip(recentTrips, tripId);
+            if (index >= 0) copies.add(recentTrips.get(index));
+        }
+        if (overview != null) {
+            int index = indexOfProgress(overview, tripId);
+            if (index >= 0) copies.add(overview.get(index).trip);
+        }
+
+        if (updated == 0) {
+            // The cached version is stale, read the trip again next time
+            trips.remove(tripId);
+            if (recentTrips != null && indexOfTrip(recentTrips, tripId) >= 0) recentTrips = null;
+            if (overview != null && indexOfProgress(overview, tripId) >= 0) overview = null;
+            return;
+        }
+        for (Trip trip : copies) {
+            change.apply(trip);
+            trip.version++;
+        }
+    }
+
+    // Caller holds the lock; places a new trip where the newest-first lists would have it
+    private void addTrip(Trip trip, int totalItems, int packedItems) {
+        generation++;
+        trips.put(trip.id, copy(trip));
+        if (recentTrips != null) {
+            int index = insertionIndex(recentTrips, trip);
+            if (index < recentTrips.size() || recentTripsComplete) {
+                recentTrips.add(index, copy(trip));
+            }
+        }
+        if (overview != null) {
+            TripProgress progress = new TripProgress();
+            progress.trip = copy(trip);
+            progress.totalItems = totalItems;
+            progress.packedItems = packedItems;
+            int index = 0;
+            while (index < overview.size() && overview.get(index).trip.createdAt >= trip.createdAt) {
+                index++;
+            }
+            overview.add(index, progress);
+        }
+    }
+
+    // Caller holds the lock
+    private void dropItems(long tripId) {
+        generation++;
+        itemLists.remove(tripId);
+        oversizedLists.remove(tripId);
+    }
+
+    // Caller holds the lock
+    private void adjustCounts(long tripId, int totalDelta, int packedDelta) {
+        if (overview == null) return;
+        int index = indexOfProgress(overview, tripId);
+        if (index >= 0) {
+            overview.get(index).totalItems += totalDelta;
+            overview.get(index).packedItems += packedDelta;
+        }
+    }
+
+    // Caller holds the lock; returns false if some item wasn't cached, so its trip's count
+    // in the overview couldn't be adjusted
+    private boolean markPacked(List<Long> itemIds, boolean isPacked) {
+        Set<Long> remaining = new HashSet<>(itemIds);
+        for (List<PackingListItem> items : itemLists.snapshot().values()) {
+            for (PackingListItem item : items) {
+                if (remaining.remove(item.id) && item.isPacked != isPacked) {
+                    item.isPacked = isPacked;
+                    adjustCounts(item.tripId, 0, isPacked ? 1 : -1);
+                }
+            }
+        }
+        return remaining.isEmpty();
+    }
+
+    // Newest-first position: createdAt descending, then id descending
+    private static int insertionIndex(List<Trip> list, Trip trip) {
+        int index = 0;
+        while (index < list.size() && (list.get(index).createdAt > trip.createdAt
+                || (list.get(index).createdAt == trip.createdAt && list.get(index).id > trip.id))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int indexOfTrip(List<Trip> list, long tripId) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).id == tripId) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfItem(List<PackingListItem> list, long itemId) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).id == itemId) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfProgress(List<TripProgress> list, long tripId) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).trip.id == tripId) return i;
+        }
+        return -1;
+    }
+
+    // Overview entries in the range, in the order of the DAO queries (startEpochDay, then id)
+    private static List<TripProgress> startingBetween(List<TripProgress> overview, long fromEpochDay,
+                                                      long toEpochDay, boolean incompleteOnly) {
+        List<TripProgress> matches = new ArrayList<>();
+        for (TripProgress progress : overview) {
+            long startEpochDay = progress.trip.startEpochDay;
+            if (startEpochDay >= fromEpochDay && startEpochDay <= toEpochDay
+                    && (!incompleteOnly || progress.packedItems < progress.totalItems)) {
+                matches.add(progress);
+            }
+        }
+        Collections.sort(matches, (a, b) -> a.trip.startEpochDay != b.trip.startEpochDay
+                ? Long.compare(a.trip.startEpochDay, b.trip.startEpochDay)
+                : Long.compare(a.trip.id, b.trip.id));
+        return matches;
+    }
+
+    private static Trip copy(Trip trip) {
+        Trip copy = new Trip(trip.destination, trip.duration, trip.tripType, trip.startDate,
+                trip.endDate, trip.weatherInfo, trip.createdAt);
+        copy.id = trip.id;
+        copy.date = trip.date;
+        copy.startEpochDay = trip.startEpochDay;
+        copy.endEpochDay = trip.endEpochDay;
+        copy.version = trip.version;
+        return copy;
+    }
+
+    private static List<Trip> copyTrips(List<Trip> list) {
+        List<Trip> copies = new ArrayList<>(list.size());
+        for (Trip trip : list) copies.add(copy(trip));
+        return copies;
+    }
+
+    private static List<PackingListItem> copyItems(List<PackingListItem> list) {
+        List<PackingListItem> copies = new ArrayList<>(list.size());
+        for (PackingListItem item : list) copies.add(item.copy());
+        return copies;
+    }
+
+    private static List<TripProgress> copyProgress(List<TripProgress> list) {
+        List<TripProgress> copies = new ArrayList<>(list.size());
+        for (TripProgress progress : list) {
+            TripProgress copy = new TripProgress();
+            copy.trip = copy(progress.trip);
+            copy.totalItems = progress.totalItems;
+            copy.packedItems = progress.packedItems;
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,658 @@
+package com.example.packyourbag.Database;
+
+import android.database.Cursor;
+import android.util.Base64;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.packyourbag.DAOInterfaces.TripDao;
+import com.example.packyourbag.DatabaseEntities.ArchivedTrip;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.Trip;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UTFDataFormatException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Streaming export and import of all trips and their packing items. Rows go through cursors
+ * and fixed-size batches, so memory use doesn't grow with the history. Each trip record is
+ * followed by its items, and the trips TripArchiver moved to archived_trips come last, as
+ * stored (their compressed payload holds the items). Either of two formats:
+ * JSON_LINES - a header object, then one JSON object per line ("t" is "trip", "item" or
+ * "archived", whose payload is Base64)
+ * BINARY - gzipped DataOutputStream records, the compact one
+ * Importing into an empty database gives back the same trip ids, rows, versions, archive and
+ * order, so exporting again produces an identical file. Run both on a background thread
+ */
+public final class TripTransfer {
+    public enum Format { JSON_LINES, BINARY }
+
+    // Called every PROGRESS_INTERVAL rows and at the end, on the worker thread
+    public interface ProgressListener {
+        void onProgress(long rowsDone, long rowsTotal);
+    }
+
+    // The file being imported is not an export: wrong format or version, truncated or malformed.
+    // Any other IOException from importFrom comes from reading the stream itself
+    public static class FormatException extends IOException {
+        FormatException(String message) {
+            super(message);
+        }
+
+        FormatException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static final String FORMAT_NAME = "packyourbag";
+    private static final int FORMAT_VERSION = 3; // 2 added maxTripId and the row versions, 3 archived trips
+    private static final int OLDEST_FORMAT_VERSION = 2; // Still imported, without an archive
+    private static final int BINARY_MAGIC = 0x50594231; // "PYB1"
+    private static final byte RECORD_TRIP = 'T';
+    private static final byte RECORD_ITEM = 'I';
+    private static final byte RECORD_ARCHIVED = 'A';
+    private static final byte RECORD_END = 'E';
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int PROGRESS_INTERVAL = 500;
+
+    private TripTransfer() {
+    }
+
+    /**
+     * Writes every trip, item and archived trip to out (not closed). One read-only transaction
+     * keeps them and the header consistent with each other; it is deferred, so it doesn't take
+     * the write lock and the app keeps saving while a long export runs
+     */
+    public static long export(PackingDatabase database, OutputStream out, Format format,
+                              ProgressListener progress) throws IOException {
+        TripDao tripDao = database.tripDao();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        db.beginTransactionReadOnly();
+        try {
+            long done = write(tripDao, out, format, progress);
+            db.setTransactionSuccessful();
+            return done;
+        } catch (JSONException e) {
+            throw new IOException("Could not write the export", e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static long write(TripDao tripDao, OutputStream out, Format format, ProgressListener progress)
+            throws IOException, JSONException {
+        long tripCount = tripDao.getTripCount();
+        long itemCount = tripDao.getItemCount();
+        long archivedCount = tripDao.getArchivedTripCount();
+        long total = tripCount + itemCount + archivedCount;
+        long done = 0;
+
+        RecordWriter writer = format == Format.BINARY ? new BinaryWriter(out) : new JsonLinesWriter(out);
+        writer.header(new Header(tripCount, itemCount, archivedCount, tripDao.getMaxTripIdInUse()));
+        try (Cursor trips = tripDao.getTripsForExport();
+             Cursor items = tripDao.getItemsForExport()) {
+            TripColumns tripColumns = new TripColumns(trips);
+            ItemColumns itemColumns = new ItemColumns(items);
+            // Both cursors are ordered by trip id, items are merged in after their trip
+            boolean hasItem = items.moveToNext();
+            while (trips.moveToNext()) {
+                long tripId = trips.getLong(tripColumns.id);
+                writer.trip(tripColumns.read(trips));
+                reportProgress(progress, ++done, total);
+
+                while (hasItem && items.getLong(itemColumns.tripId) <= tripId) {
+                    if (items.getLong(itemColumns.tripId) == tripId) {
+                        writer.item(itemColumns.read(items));
+                        reportProgress(progress, ++done, total);
+                    }
+                    hasItem = items.moveToNext();
+                }
+            }
+        }
+        try (Cursor archivedTrips = tripDao.getArchivedTripsForExport()) {
+            ArchivedColumns archivedColumns = new ArchivedColumns(archivedTrips);
+            while (archivedTrips.moveToNext()) {
+                writer.archivedTrip(archivedColumns.read(archivedTrips));
+                reportProgress(progress, ++done, total);
+            }
+        }
+        writer.finish();
+        if (progress != null) progress.onProgress(done, total);
+        return done;
+    }
+
+    /**
+     * Reads a file written by export() (the format is detected) and adds its trips, items and
+     * archived trips, IMPORT_BATCH_SIZE rows per transaction. Trip ids are shifted past every id
+     * already in use, live or archived, and the shifted range is reserved before the first batch,
+     * so trips created while the import runs can't take one of its ids. The import is all or
+     * nothing: if it fails part way, the batches already written are deleted again. Throws
+     * FormatException when the file isn't a valid export. Returns the rows imported
+     */
+    public static long importFrom(PackingDatabase database, InputStream in, ProgressListener progress)
+            throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        boolean gzip = buffered.read() == 0x1f && buffered.read() == 0x8b;
+        buffered.reset();
+
+        TripDao tripDao = database.tripDao();
+        try (RecordReader reader = gzip ? new BinaryReader(buffered) : new JsonLinesReader(buffered)) {
+            Header header = reader.header();
+            long idOffset = reserveTripIds(database, tripDao, header.maxTripId);
+            try {
+                return read(database, tripDao, reader, header, idOffset, progress);
+            } catch (Exception e) {
+                deleteTrips(database, tripDao, idOffset + 1, idOffset + header.maxTripId);
+                throw e;
+            }
+        } catch (JSONException e) {
+            throw new FormatException("Malformed export file", e);
+        } catch (EOFException | ZipException | UTFDataFormatException e) {
+            throw new FormatException("Truncated or corrupt export file", e);
+        }
+    }
+
+    private static long read(PackingDatabase database, TripDao tripDao, RecordReader reader, Header header,
+                             long idOffset, ProgressListener progress) throws IOException, JSONException {
+        long total = header.tripCount + header.itemCount + header.archivedCount;
+        long done = 0;
+        List<Trip> trips = new ArrayList<>();
+        List<PackingListItem> items = new ArrayList<>();
+        List<ArchivedTrip> archivedTrips = new ArrayList<>();
+        long currentTripId = -1;
+
+        Object record;
+        while ((record = reader.next()) != null) {
+            if (record instanceof Trip) {
+                Trip trip = (Trip) record;
+                trip.id = shiftTripId(trip.id, header, idOffset);
+                currentTripId = trip.id;
+                trips.add(trip);
+            } else if (record instanceof ArchivedTrip) {
+                ArchivedTrip archivedTrip = (ArchivedTrip) record;
+                archivedTrip.id = shiftTripId(archivedTrip.id, header, idOffset);
+                currentTripId = -1; // Its items are in the payload
+                archivedTrips.add(archivedTrip);
+            } else {
+                if (currentTripId < 0) throw new FormatException("Item record without a live trip before it");
+                PackingListItem item = (PackingListItem) record;
+                item.tripId = currentTripId;
+                items.add(item);
+            }
+
+            if (trips.size() + items.size() + archivedTrips.size() == IMPORT_BATCH_SIZE) {
+                insertBatch(database, tripDao, trips, items, archivedTrips);
+            }
+            reportProgress(progress, ++done, total);
+        }
+        insertBatch(database, tripDao, trips, items, archivedTrips);
+        if (progress != null) progress.onProgress(done, total);
+        return done;
+    }
+
+    private static long shiftTripId(long tripId, Header header, long idOffset) throws IOException {
+        if (tripId < 1 || tripId > header.maxTripId) {
+            throw new FormatException("Trip id " + tripId + " outside the range in the header");
+        }
+        return tripId + idOffset;
+    }
+
+    // Returns the id offset. Raising the trips sequence in the same transaction makes new trips
+    // get ids past offset + maxTripId, whatever the import has inserted so far
+    private static long reserveTripIds(PackingDatabase database, TripDao tripDao, long maxTripId) {
+        return TripRepository.getInstance(database).runBulkWrite(() -> {
+            long idOffset = tripDao.getMaxTripIdInUse();
+            if (maxTripId > 0 && tripDao.raiseTripIdSequence(idOffset + maxTripId) == 0) {
+                tripDao.insertTripIdSequence(idOffset + maxTripId);
+            }
+            return idOffset;
+        });
+    }
+
+    // Undoes a failed import; nothing else can have used ids in the reserved range
+    private static void deleteTrips(PackingDatabase database, TripDao tripDao, long fromTripId, long toTripId) {
+        if (toTripId < fromTripId) return;
+        TripRepository.getInstance(database).runBulkWrite(() -> {
+            tripDao.deleteItemsOfTrips(fromTripId, toTripId);
+            tripDao.deleteTrips(fromTripId, toTripId);
+            tripDao.deleteArchivedTrips(fromTripId, toTripId);
+            return null;
+        });
+    }
+
+    private static void insertBatch(PackingDatabase database, TripDao tripDao, List<Trip> trips,
+                                    List<PackingListItem> items, List<ArchivedTrip> archivedTrips) {
+        if (trips.isEmpty() && items.isEmpty() && archivedTrips.isEmpty()) return;
+        TripRepository.getInstance(database).runBulkWrite(() -> {
+            for (Trip trip : trips) {
+                tripDao.insertTrip(trip);
+            }
+            tripDao.insertNamedItems(items);
+            if (!archivedTrips.isEmpty()) {
+                tripDao.insertArchivedTrips(archivedTrips);
+            }
+            return null;
+        });
+        trips.clear();
+        items.clear();
+        archivedTrips.clear();
+    }
+
+    private static void reportProgress(ProgressListener progress, long done, long total) {
+        if (progress != null && done % PROGRESS_INTERVAL == 0) {
+            progress.onProgress(done, total);
+        }
+    }
+
+    // Column positions, looked up once per cursor
+    private static class TripColumns {
+        final int id, destination, duration, tripType, startDate, endDate, weatherInfo, createdAt, date, version;
+
+        TripColumns(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow("id");
+            destination = cursor.getColumnIndexOrThrow("destination");
+            duration = cursor.getColumnIndexOrThrow("duration");
+            tripType = cursor.getColumnIndexOrThrow("tripType");
+            startDate = cursor.getColumnIndexOrThrow("startDate");
+            endDate = cursor.getColumnIndexOrThrow("endDate");
+            weatherInfo = cursor.getColumnIndexOrThrow("weatherInfo");
+            createdAt = cursor.getColumnIndexOrThrow("createdAt");
+            date = cursor.getColumnIndexOrThrow("date");
+            version = cursor.getColumnIndexOrThrow("version");
+        }
+
+        Trip read(Cursor cursor) {
+            Trip trip = new Trip(cursor.getString(destination), cursor.getInt(duration), cursor.getString(tripType),
+                    cursor.getString(startDate), cursor.getString(endDate), cursor.getString(weatherInfo),
+                    cursor.getLong(createdAt));
+            trip.id = cursor.getLong(id);
+            trip.date = cursor.getString(date);
+            trip.version = cursor.getInt(version);
+            return trip;
+        }
+    }
+
+    private static class ItemColumns {
+        final int tripId, itemName, category, isPacked, createdAt, version;
+
+        ItemColumns(Cursor cursor) {
+            tripId = cursor.getColumnIndexOrThrow("tripId");
+            itemName = cursor.getColumnIndexOrThrow("itemName");
+            category = cursor.getColumnIndexOrThrow("category");
+            isPacked = cursor.getColumnIndexOrThrow("isPacked");
+            createdAt = cursor.getColumnIndexOrThrow("createdAt");
+            version = cursor.getColumnIndexOrThrow("version");
+        }
+
+        PackingListItem read(Cursor cursor) {
+            PackingListItem item = new PackingListItem(cursor.getLong(tripId), cursor.getString(itemName),
+                    cursor.getString(category), cursor.getInt(isPacked) != 0);
+            item.createdAt = cursor.getLong(createdAt);
+            item.version = cursor.getInt(version);
+            return item;
+        }
+    }
+
+    private static class ArchivedColumns {
+        final int id, destination, tripType, startDate, endDate, startEpochDay, endEpochDay,
+                totalItems, packedItems, archivedAt, payload;
+
+        ArchivedColumns(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow("id");
+            destination = cursor.getColumnIndexOrThrow("destination");
+            tripType = cursor.getColumnIndexOrThrow("tripType");
+            startDate = cursor.getColumnIndexOrThrow("startDate");
+            endDate = cursor.getColumnIndexOrThrow("endDate");
+            startEpochDay = cursor.getColumnIndexOrThrow("startEpochDay");
+            endEpochDay = cursor.getColumnIndexOrThrow("endEpochDay");
+            totalItems = cursor.getColumnIndexOrThrow("totalItems");
+            packedItems = cursor.getColumnIndexOrThrow("packedItems");
+            archivedAt = cursor.getColumnIndexOrThrow("archivedAt");
+            payload = cursor.getColumnIndexOrThrow("payload");
+        }
+
+        ArchivedTrip read(Cursor cursor) {
+            ArchivedTrip archivedTrip = new ArchivedTrip();
+            archivedTrip.id = cursor.getLong(id);
+            archivedTrip.destination = cursor.getString(destination);
+            archivedTrip.tripType = cursor.getString(tripType);
+            archivedTrip.startDate = cursor.getString(startDate);
+            archivedTrip.endDate = cursor.getString(endDate);
+            archivedTrip.startEpochDay = cursor.getLong(startEpochDay);
+            archivedTrip.endEpochDay = cursor.getLong(endEpochDay);
+            archivedTrip.totalItems = cursor.getInt(totalItems);
+            archivedTrip.packedItems = cursor.getInt(packedItems);
+            archivedTrip.archivedAt = cursor.getLong(archivedAt);
+            archivedTrip.payload = cursor.getBlob(payload);
+            return archivedTrip;
+        }
+    }
+
+    private static class Header {
+        final long tripCount, itemCount, archivedCount, maxTripId;
+
+        Header(long tripCount, long itemCount, long archivedCount, long maxTripId) throws IOException {
+            if (tripCount < 0 || itemCount < 0 || archivedCount < 0 || maxTripId < 0) {
+                throw new FormatException("Malformed header");
+            }
+            this.tripCount = tripCount;
+            this.itemCount = itemCount;
+            this.archivedCount = archivedCount;
+            this.maxTripId = maxTripId;
+        }
+    }
+
+    private static void checkVersion(boolean magicMatches, int version) throws IOException {
+        if (!magicMatches || version < OLDEST_FORMAT_VERSION || version > FORMAT_VERSION) {
+            throw new FormatException("Not a " + FORMAT_NAME + " export (version " + OLDEST_FORMAT_VERSION +
+                    " to " + FORMAT_VERSION + ")");
+        }
+    }
+
+    private interface RecordWriter {
+        void header(Header header) throws IOException, JSONException;
+        void trip(Trip trip) throws IOException, JSONException;
+        void item(PackingListItem item) throws IOException, JSONException;
+        void archivedTrip(ArchivedTrip archivedTrip) throws IOException, JSONException;
+        void finish() throws IOException;
+    }
+
+    private interface RecordReader extends Closeable {
+        Header header() throws IOException, JSONException;
+        // Next Trip, PackingListItem or ArchivedTrip, null at the end of the file
+        Object next() throws IOException, JSONException;
+    }
+
+    private static class JsonLinesWriter implements RecordWriter {
+        private final Writer writer;
+
+        JsonLinesWriter(OutputStream out) {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void header(Header header) throws IOException, JSONException {
+            line(new JSONObject().put("format", FORMAT_NAME).put("version", FORMAT_VERSION)
+                    .put("trips", header.tripCount).put("items", header.itemCount)
+                    .put("archived", header.archivedCount).put("maxTripId", header.maxTripId));
+        }
+
+        // put() leaves out null values, the reader turns missing keys back into null
+        @Override
+        public void trip(Trip trip) throws IOException, JSONException {
+            line(new JSONObject().put("t", "trip").put("id", trip.id).put("destination", trip.destination)
+                    .put("duration", trip.duration).put("tripType", trip.tripType)
+                    .put("startDate", trip.startDate).put("endDate", trip.endDate)
+                    .put("weatherInfo", trip.weatherInfo).put("createdAt", trip.createdAt)
+                    .put("date", trip.date).put("version", trip.version));
+        }
+
+        @Override
+        public void item(PackingListItem item) throws IOException, JSONException {
+            line(new JSONObject().put("t", "item").put("itemName", item.itemName)
+                    .put("category", item.category).put("isPacked", item.isPacked)
+                    .put("createdAt", item.createdAt).put("version", item.version));
+        }
+
+        @Override
+        public void archivedTrip(ArchivedTrip archivedTrip) throws IOException, JSONException {
+            line(new JSONObject().put("t", "archived").put("id", archivedTrip.id)
+                    .put("destination", archivedTrip.destination).put("tripType", archivedTrip.tripType)
+                    .put("startDate", archivedTrip.startDate).put("endDate", archivedTrip.endDate)
+                    .put("startEpochDay", archivedTrip.startEpochDay).put("endEpochDay", archivedTrip.endEpochDay)
+                    .put("totalItems", archivedTrip.totalItems).put("packedItems", archivedTrip.packedItems)
+                    .put("archivedAt", archivedTrip.archivedAt)
+                    .put("payload", Base64.encodeToString(archivedTrip.payload, Base64.NO_WRAP)));
+        }
+
+        private void line(JSONObject json) throws IOException {
+            writer.write(json.toString());
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static class JsonLinesReader implements RecordReader {
+        private final BufferedReader reader;
+
+        JsonLinesReader(InputStream in) {
+            reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Header header() throws IOException, JSONException {
+            String line = reader.readLine();
+            JSONObject header = new JSONObject(line != null ? line : "{}");
+            int version = header.optInt("version");
+            checkVersion(FORMAT_NAME.equals(header.optString("format")), version);
+            return new Header(header.getLong("trips"), header.getLong("items"),
+                    version >= 3 ? header.getLong("archived") : 0, header.getLong("maxTripId"));
+        }
+
+        @Override
+        public Object next() throws IOException, JSONException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+            } while (line.isEmpty());
+
+            JSONObject json = new JSONObject(line);
+            String type = json.getString("t");
+            if ("archived".equals(type)) {
+                ArchivedTrip archivedTrip = new ArchivedTrip();
+                archivedTrip.id = json.getLong("id");
+                archivedTrip.destination = json.optString("destination", null);
+                archivedTrip.tripType = json.optString("tripType", null);
+                archivedTrip.startDate = json.optString("startDate", null);
+                archivedTrip.endDate = json.optString("endDate", null);
+                archivedTrip.startEpochDay = json.getLong("startEpochDay");
+                archivedTrip.endEpochDay = json.getLong("endEpochDay");
+                archivedTrip.totalItems = json.getInt("totalItems");
+                archivedTrip.packedItems = json.getInt("packedItems");
+                archivedTrip.archivedAt = json.getLong("archivedAt");
+                try {
+                    archivedTrip.payload = Base64.decode(json.getString("payload"), Base64.NO_WRAP);
+                } catch (IllegalArgumentException e) {
+                    throw new FormatException("Malformed payload of archived trip " + archivedTrip.id, e);
+                }
+                return archivedTrip;
+            }
+            if ("trip".equals(type)) {
+                Trip trip = new Trip(json.optString("destination", null), json.getInt("duration"),
+                        json.optString("tripType", null), json.optString("startDate", null),
+                        json.optString("endDate", null), json.optString("weatherInfo", null),
+                        json.getLong("createdAt"));
+                trip.id = json.getLong("id");
+                trip.date = json.optString("date", null);
+                trip.version = json.getInt("version");
+                return trip;
+            }
+            PackingListItem item = new PackingListItem(0, json.optString("itemName", null),
+                    json.optString("category", null), json.getBoolean("isPacked"));
+            item.createdAt = json.getLong("createdAt");
+            item.version = json.getInt("version");
+            return item;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class BinaryWriter implements RecordWriter {
+        private final GZIPOutputStream gzip;
+        private final DataOutputStream out;
+
+        BinaryWriter(OutputStream stream) throws IOException {
+            gzip = new GZIPOutputStream(new BufferedOutputStream(stream));
+            out = new DataOutputStream(gzip);
+        }
+
+        @Override
+        public void header(Header header) throws IOException {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(header.tripCount);
+            out.writeLong(header.itemCount);
+            out.writeLong(header.maxTripId);
+            out.writeLong(header.archivedCount);
+        }
+
+        @Override
+        public void trip(Trip trip) throws IOException {
+            out.writeByte(RECORD_TRIP);
+            out.writeLong(trip.id);
+            writeString(trip.destination);
+            out.writeInt(trip.duration);
+            writeString(trip.tripType);
+            writeString(trip.startDate);
+            writeString(trip.endDate);
+            writeString(trip.weatherInfo);
+            out.writeLong(trip.createdAt);
+            writeString(trip.date);
+            out.writeInt(trip.version);
+        }
+
+        @Override
+        public void item(PackingListItem item) throws IOException {
+            out.writeByte(RECORD_ITEM);
+            writeString(item.itemName);
+            writeString(item.category);
+            out.writeBoolean(item.isPacked);
+            out.writeLong(item.createdAt);
+            out.writeInt(item.version);
+        }
+
+        @Override
+        public void archivedTrip(ArchivedTrip archivedTrip) throws IOException {
+            out.writeByte(RECORD_ARCHIVED);
+            out.writeLong(archivedTrip.id);
+            writeString(archivedTrip.destination);
+            writeString(archivedTrip.tripType);
+            writeString(archivedTrip.startDate);
+            writeString(archivedTrip.endDate);
+            out.writeLong(archivedTrip.startEpochDay);
+            out.writeLong(archivedTrip.endEpochDay);
+            out.writeInt(archivedTrip.totalItems);
+            out.writeInt(archivedTrip.packedItems);
+            out.writeLong(archivedTrip.archivedAt);
+            out.writeInt(archivedTrip.payload.length);
+            out.write(archivedTrip.payload);
+        }
+
+        private void writeString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) out.writeUTF(value);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.writeByte(RECORD_END);
+            out.flush();
+            gzip.finish();
+        }
+    }
+
+    private static class BinaryReader implements RecordReader {
+        private final DataInputStream in;
+
+        BinaryReader(InputStream stream) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+        }
+
+        @Override
+        public Header header() throws IOException {
+            boolean magicMatches = in.readInt() == BINARY_MAGIC;
+            int version = in.readInt();
+            checkVersion(magicMatches, version);
+            long tripCount = in.readLong();
+            long itemCount = in.readLong();
+            long maxTripId = in.readLong();
+            return new Header(tripCount, itemCount, version >= 3 ? in.readLong() : 0, maxTripId);
+        }
+
+        @Override
+        public Object next() throws IOException {
+            byte type = in.readByte();
+            if (type == RECORD_END) return null;
+            if (type == RECORD_TRIP) {
+                long id = in.readLong();
+                String destination = readString();
+                int duration = in.readInt();
+                String tripType = readString();
+                String startDate = readString();
+                String endDate = readString();
+                String weatherInfo = readString();
+                long createdAt = in.readLong();
+                Trip trip = new Trip(destination, duration, tripType, startDate, endDate, weatherInfo, createdAt);
+                trip.id = id;
+                trip.date = readString();
+                trip.version = in.readInt();
+                return trip;
+            }
+            if (type == RECORD_ITEM) {
+                PackingListItem item = new PackingListItem(0, readString(), readString(), in.readBoolean());
+                item.createdAt = in.readLong();
+                item.version = in.readInt();
+                return item;
+            }
+            if (type == RECORD_ARCHIVED) {
+                ArchivedTrip archivedTrip = new ArchivedTrip();
+                archivedTrip.id = in.readLong();
+                archivedTrip.destination = readString();
+                archivedTrip.tripType = readString();
+                archivedTrip.startDate = readString();
+                archivedTrip.endDate = readString();
+                archivedTrip.startEpochDay = in.readLong();
+                archivedTrip.endEpochDay = in.readLong();
+                archivedTrip.totalItems = in.readInt();
+                archivedTrip.packedItems = in.readInt();
+                archivedTrip.archivedAt = in.readLong();
+                int length = in.readInt();
+                if (length < 0) throw new FormatException("Malformed payload of archived trip " + archivedTrip.id);
+                archivedTrip.payload = new byte[length];
+                in.readFully(archivedTrip.payload);
+                return archivedTrip;
+            }
+            throw new FormatException("Unknown record type " + type);
+        }
+
+        private String readString() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
\ No newline at end of file
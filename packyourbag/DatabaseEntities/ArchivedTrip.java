@@ -0,0 +1,26 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// A past trip moved out of trips/packing_items. The summary columns are enough to list it,
+// the full trip and its items are in payload as GZIP-compressed JSON (see TripArchiver)
+@Entity(tableName = "archived_trips",
+        indices = {@Index(value = {"startEpochDay"})})
+public class ArchivedTrip {
+    // The trip's original id, reused when it is restored
+    @PrimaryKey
+    public long id;
+
+    public String destination;
+    public String tripType;
+    public String startDate;
+    public String endDate;
+    public long startEpochDay;
+    public long endEpochDay;
+    public int totalItems;
+    public int packedItems;
+    public long archivedAt;
+    public byte[] payload;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.packyourbag.DatabaseEntities;
+
+// archived_trips row without the payload, for listing the archive
+public class ArchivedTripSummary {
+    public long id;
+    public String destination;
+    public String tripType;
+    public String startDate;
+    public String endDate;
+    public int totalItems;
+    public int packedItems;
+    public long archivedAt;
+}
\ No newline at end of file
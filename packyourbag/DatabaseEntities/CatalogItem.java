@@ -0,0 +1,21 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// Each distinct item name is stored once, however many trips pack it
+@Entity(tableName = "item_catalog",
+        indices = {@Index(value = {"name"}, unique = true)})
+public class CatalogItem {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @NonNull
+    public String name;
+
+    public CatalogItem(@NonNull String name) {
+        this.name = name;
+    }
+}
\ No newline at end of file
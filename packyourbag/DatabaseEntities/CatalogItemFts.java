@@ -0,0 +1,11 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+// External-content FTS index over item names, one row per name instead of one per packing item
+@Fts4(contentEntity = CatalogItem.class)
+@Entity(tableName = "item_catalog_fts")
+public class CatalogItemFts {
+    public String name;
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// Lookup table for item categories, packing_items stores only the id
+@Entity(tableName = "categories",
+        indices = {@Index(value = {"name"}, unique = true)})
+public class Category {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @NonNull
+    public String name;
+
+    public Category(@NonNull String name) {
+        this.name = name;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+// External-content FTS index over category names, so searching "electronics" still finds items
+@Fts4(contentEntity = Category.class)
+@Entity(tableName = "categories_fts")
+public class CategoryFts {
+    public String name;
+}
\ No newline at end of file
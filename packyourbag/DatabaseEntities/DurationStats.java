@@ -0,0 +1,18 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// Running totals per trip length in days, updated by triggers whenever a trip_stats row changes
+@Entity(tableName = "duration_stats")
+public class DurationStats {
+    @PrimaryKey
+    public int duration;
+
+    public int tripCount;
+    public int totalItems;
+
+    public double getAverageListSize() {
+        return tripCount > 0 ? (double) totalItems / tripCount : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// Where a destination string resolves to, so WeatherService can skip the geocoding request.
+// query is the normalized form (WeatherService.normalizePlace), one row per spelling seen
+@Entity(tableName = "geocode_cache",
+        indices = {@Index(value = {"fetchedAt"})})
+public class GeocodedPlace {
+    @PrimaryKey
+    @NonNull
+    public String query;
+
+    public double lat;
+    public double lon;
+    @NonNull
+    public String cityName;
+    @NonNull
+    public String country;
+    public long fetchedAt;
+
+    public GeocodedPlace(@NonNull String query, double lat, double lon, @NonNull String cityName,
+                         @NonNull String country, long fetchedAt) {
+        this.query = query;
+        this.lat = lat;
+        this.lon = lon;
+        this.cityName = cityName;
+        this.country = country;
+        this.fetchedAt = fetchedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.packyourbag.DatabaseEntities;
+
+// item_name_stats row with the item name joined in
+public class ItemFrequency {
+    public String itemName;
+    public int itemCount;
+    public int unpackedCount;
+}
\ No newline at end of file
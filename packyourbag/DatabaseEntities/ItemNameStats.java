@@ -0,0 +1,17 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// How often each catalog item is on a list and how often it is still unpacked, kept current by
+// triggers on packing_items. Indexed for the top-N queries in StatsDao
+@Entity(tableName = "item_name_stats",
+        indices = {@Index(value = {"itemCount"}), @Index(value = {"unpackedCount"})})
+public class ItemNameStats {
+    @PrimaryKey
+    public long catalogItemId;
+
+    public int itemCount;
+    public int unpackedCount;
+}
\ No newline at end of file
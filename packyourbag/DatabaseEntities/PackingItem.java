@@ -1,33 +1,43 @@
 package com.example.packyourbag.DatabaseEntities;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "packing_items")
+// Names live in categories and item_catalog, a row here is only integers. Indices follow the
+// PackingItemDao query shapes (tripId first, then the filter/sort columns); the single-column
+// ones serve the foreign keys and the search lookups
+@Entity(tableName = "packing_items",
+        foreignKeys = {
+                @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "categoryId"),
+                @ForeignKey(entity = CatalogItem.class, parentColumns = "id", childColumns = "catalogItemId")
+        },
+        indices = {
+                @Index(value = {"tripId", "categoryId", "catalogItemId"}),
+                @Index(value = {"tripId", "isPacked", "categoryId"}),
+                @Index(value = {"categoryId"}),
+                @Index(value = {"catalogItemId"})
+        })
 public class PackingItem {
     @PrimaryKey(autoGenerate = true)
     public long id;
 
     public long tripId;
-    public String itemName;
-    public String category;
+    public long categoryId;
+    public long catalogItemId;
     public boolean isPacked;
     public long createdAt; // Added field for creation timestamp
 
-    @androidx.room.Ignore
-    public PackingItem(long tripId, String itemName, String category, boolean isPacked) {
-        this.tripId = tripId;
-        this.itemName = itemName;
-        this.category = category;
-        this.isPacked = isPacked;
-        this.createdAt = System.currentTimeMillis(); // Set current time when created
-    }
+    // Bumped on rename/recategorise, see PackingItemDao.setItemNames
+    @ColumnInfo(defaultValue = "0")
+    public int version;
 
-    // Constructor with createdAt parameter (for database operations)
-    public PackingItem(long tripId, String itemName, String category, boolean isPacked, long createdAt) {
+    public PackingItem(long tripId, long categoryId, long catalogItemId, boolean isPacked, long createdAt) {
         this.tripId = tripId;
-        this.itemName = itemName;
-        this.category = category;
+        this.categoryId = categoryId;
+        this.catalogItemId = catalogItemId;
         this.isPacked = isPacked;
         this.createdAt = createdAt;
     }
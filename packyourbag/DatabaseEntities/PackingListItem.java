@@ -0,0 +1,41 @@
+package com.example.packyourbag.DatabaseEntities;
+
+// A packing item with its category and item names joined in, as shown in the list.
+// New items are built with names only; PackingItemDao resolves the ids when inserting them
+public class PackingListItem {
+    public long id;
+    public long tripId;
+    public long categoryId;
+    public long catalogItemId;
+    public String itemName;
+    public String category;
+    public boolean isPacked;
+    public long createdAt;
+    public int version;
+
+    public PackingListItem() {
+    }
+
+    @androidx.room.Ignore
+    public PackingListItem(long tripId, String itemName, String category, boolean isPacked) {
+        this.tripId = tripId;
+        this.itemName = itemName;
+        this.category = category;
+        this.isPacked = isPacked;
+        this.createdAt = System.currentTimeMillis(); // Set current time when created
+    }
+
+    public PackingListItem copy() {
+        PackingListItem copy = new PackingListItem();
+        copy.id = id;
+        copy.tripId = tripId;
+        copy.categoryId = categoryId;
+        copy.catalogItemId = catalogItemId;
+        copy.itemName = itemName;
+        copy.category = category;
+        copy.isPacked = isPacked;
+        copy.createdAt = createdAt;
+        copy.version = version;
+        return copy;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.packyourbag.DatabaseEntities;
+
+// Totals across all trips, used by the overview statistics
+public class PackingStats {
+    public int totalTrips;
+    public int completedTrips;
+    public int totalItems;
+    public int packedItems;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// A saved packing list that can be applied to any trip, its items are in template_items.
+// Listed by name, hence the index
+@Entity(tableName = "templates",
+        indices = {@Index(value = {"name"})})
+public class PackingTemplate {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @NonNull
+    public String name;
+    public long createdAt;
+
+    public PackingTemplate(@NonNull String name, long createdAt) {
+        this.name = name;
+        this.createdAt = createdAt;
+    }
+}
\ No newline at end of file
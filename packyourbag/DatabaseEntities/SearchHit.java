@@ -0,0 +1,20 @@
+package com.example.packyourbag.DatabaseEntities;
+
+// One search result, either a packing item (with its trip) or a trip matched by destination
+public class SearchHit {
+    public static final String KIND_ITEM = "item";
+    public static final String KIND_TRIP = "trip";
+
+    public String kind;
+    public long tripId;
+    public long itemId;
+    public String title;
+    public String category;
+    public String destination;
+    public String startDate;
+    public boolean isPacked;
+
+    public boolean isItem() {
+        return KIND_ITEM.equals(kind);
+    }
+}
\ No newline at end of file
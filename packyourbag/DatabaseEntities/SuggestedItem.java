@@ -0,0 +1,7 @@
+package com.example.packyourbag.DatabaseEntities;
+
+// A catalog suggestion matched to a trip, with the item name already filled in
+public class SuggestedItem {
+    public String itemName;
+    public String category;
+}
\ No newline at end of file
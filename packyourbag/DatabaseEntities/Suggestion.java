@@ -0,0 +1,47 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// One row of the prepackaged suggestion catalog (catalog/suggestions.sql documents the tags).
+// Read-only: rows come from the asset, the app never writes them
+@Entity(tableName = "suggestions",
+        indices = {@Index(value = {"listName", "tripType", "sortOrder"})})
+public class Suggestion {
+    @PrimaryKey
+    public long id;
+
+    @NonNull
+    public String listName;
+    @NonNull
+    public String tripType;
+    @NonNull
+    public String itemName;
+    @NonNull
+    public String category;
+    public double minTemp;
+    public double maxTemp;
+    @NonNull
+    public String weather;
+    public int minHumidity;
+    public int minDuration;
+    public int sortOrder;
+
+    public Suggestion(long id, @NonNull String listName, @NonNull String tripType, @NonNull String itemName,
+                      @NonNull String category, double minTemp, double maxTemp, @NonNull String weather,
+                      int minHumidity, int minDuration, int sortOrder) {
+        this.id = id;
+        this.listName = listName;
+        this.tripType = tripType;
+        this.itemName = itemName;
+        this.category = category;
+        this.minTemp = minTemp;
+        this.maxTemp = maxTemp;
+        this.weather = weather;
+        this.minHumidity = minHumidity;
+        this.minDuration = minDuration;
+        this.sortOrder = sortOrder;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// One item of a PackingTemplate, stored as lookup ids like packing_items so templates are
+// saved and applied with INSERT ... SELECT alone
+@Entity(tableName = "template_items",
+        foreignKeys = {
+                @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "categoryId"),
+                @ForeignKey(entity = CatalogItem.class, parentColumns = "id", childColumns = "catalogItemId")
+        },
+        indices = {
+                @Index(value = {"templateId"}),
+                @Index(value = {"categoryId"}),
+                @Index(value = {"catalogItemId"})
+        })
+public class TemplateItem {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    public long templateId;
+    public long categoryId;
+    public long catalogItemId;
+
+    public TemplateItem(long templateId, long categoryId, long catalogItemId) {
+        this.templateId = templateId;
+        this.categoryId = categoryId;
+        this.catalogItemId = catalogItemId;
+    }
+}
\ No newline at end of file
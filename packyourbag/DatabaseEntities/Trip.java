@@ -1,9 +1,20 @@
 package com.example.packyourbag.DatabaseEntities;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "trips")
+import com.example.packyourbag.Utils.PackingUtils;
+
+// Indices follow the TripDao query shapes (ordering by createdAt, filtering by type and dates)
+@Entity(tableName = "trips",
+        indices = {
+                @Index(value = {"createdAt"}),
+                @Index(value = {"tripType", "createdAt"}),
+                @Index(value = {"startEpochDay"}),
+                @Index(value = {"endEpochDay"})
+        })
 public class Trip {
     @PrimaryKey(autoGenerate = true)
     public long id;
@@ -17,6 +28,15 @@ public class Trip {
     public long createdAt;
     public String date;
 
+    // Days since 1970-01-01, used for all date filtering (startDate/endDate are kept for display)
+    public long startEpochDay;
+    public long endEpochDay;
+
+    // Bumped by every narrow TripDao update; writers pass the version they read so a stale
+    // copy can't overwrite a newer change
+    @ColumnInfo(defaultValue = "0")
+    public int version;
+
     public Trip(String destination, int duration, String tripType, String startDate, String endDate, String weatherInfo, long createdAt) {
         this.destination = destination;
         this.duration = duration;
@@ -25,5 +45,7 @@ public class Trip {
         this.endDate = endDate;
         this.weatherInfo = weatherInfo;
         this.createdAt = createdAt;
+        this.startEpochDay = PackingUtils.toEpochDay(startDate);
+        this.endEpochDay = PackingUtils.toEpochDay(endDate);
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+// External-content FTS index over trip destinations
+@Fts4(contentEntity = Trip.class)
+@Entity(tableName = "trips_fts")
+public class TripFts {
+    public String destination;
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.room.Embedded;
+
+// Trip row plus its packing counts, joined from trip_stats in the same query
+public class TripProgress {
+    @Embedded
+    public Trip trip;
+
+    public int totalItems;
+    public int packedItems;
+
+    public int getCompletionPercentage() {
+        return totalItems > 0 ? (packedItems * 100) / totalItems : 0;
+    }
+
+    public boolean isComplete() {
+        return totalItems > 0 && packedItems == totalItems;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// Item counts of one trip plus the trip's stats buckets. Maintained by the SchemaSql.STATS_TRIGGERS
+// triggers on trips and packing_items, never written by the app
+@Entity(tableName = "trip_stats")
+public class TripStats {
+    @PrimaryKey
+    public long tripId;
+
+    @NonNull
+    public String tripType = ""; // "" for trips without a type
+    public int duration;
+    public int totalItems;
+    public int packedItems;
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.packyourbag.DatabaseEntities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// Running totals per trip type, updated by triggers whenever a trip_stats row changes
+@Entity(tableName = "trip_type_stats")
+public class TripTypeStats {
+    @PrimaryKey
+    @NonNull
+    public String tripType = "";
+
+    public int tripCount;
+    public int completedTrips;
+    public int totalItems;
+    public int packedItems;
+
+    public int getCompletionPercentage() {
+        return tripCount > 0 ? (completedTrips * 100) / tripCount : 0;
+    }
+}
\ No newline at end of file
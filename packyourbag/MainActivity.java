@@ -3,6 +3,8 @@ package com.example.packyourbag;
 import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.content.pm.PackageManager;
+import android.database.SQLException;
+import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
@@ -10,6 +12,8 @@ import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.activity.result.ActivityResultLauncher;
@@ -19,22 +23,36 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 import com.android.volley.Request;
-import com.android.volley.RequestQueue;
 import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.packyourbag.Adapter.TripAdapter;
+import com.example.packyourbag.DAOInterfaces.SuggestionDao;
+import com.example.packyourbag.Database.KeysetPagedLiveData;
+import com.example.packyourbag.Database.PackedStateBuffer;
 import com.example.packyourbag.Database.PackingDatabase;
-import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.Database.SuggestionDatabase;
+import com.example.packyourbag.Database.TripArchiver;
+import com.example.packyourbag.Database.TripRepository;
+import com.example.packyourbag.Database.TripTransfer;
+import com.example.packyourbag.DatabaseEntities.ArchivedTripSummary;
+import com.example.packyourbag.DatabaseEntities.GeocodedPlace;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.SuggestedItem;
 import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.DatabaseEntities.TripProgress;
 import com.example.packyourbag.Utils.PackingUtils;
+import com.example.packyourbag.Utils.PagingScrollListener;
 import com.example.packyourbag.Services.WeatherService;
 import com.example.packyourbag.Services.AIRecommendationService;
+import com.example.packyourbag.Services.DatabaseMaintenanceJobService;
 import com.example.packyourbag.Services.EnhancedNotificationService;
+import com.example.packyourbag.Services.NetworkClient;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -45,25 +63,41 @@ import java.util.concurrent.TimeUnit;
 
 public class MainActivity extends AppCompatActivity {
     private PackingDatabase database;
+    private TripRepository repository;
+    private SuggestionDao suggestionDao;
+    private WeatherService weatherService;
     private TextView textDuration, textStartDate, textEndDate;
     private Spinner spinnerTripType;
     private Button btnCreateTrip, btnSelectStartDate, btnSelectEndDate, btnViewOverview;
     private RecyclerView recyclerTrips;
     private TripAdapter tripAdapter;
+    private KeysetPagedLiveData<Trip> tripPager;
+    private PagingScrollListener tripScrollListener;
     private ProgressBar progressBar;
     private String startDate, endDate;
     private AutoCompleteTextView editDestination;
     private ProgressBar cityLoader;
     private int calculatedDuration = 0;
     private static final String API_KEY = "7e73becad5526e8ca1fb06b3a9d2bd91";
+    private static final int TRIP_PAGE_SIZE = 30;
+    private static final int MENU_SEARCH = 1;
+    private static final int MENU_ARCHIVE = 2;
+    private static final int MENU_EXPORT = 3;
+    private static final int MENU_IMPORT = 4;
 
     // Permission launcher for POST_NOTIFICATIONS
     private ActivityResultLauncher<String> notificationPermissionLauncher;
 
+    // Storage Access Framework pickers for export/import
+    private ActivityResultLauncher<String> exportLauncher;
+    private ActivityResultLauncher<String[]> importLauncher;
+    private TripTransfer.Format exportFormat = TripTransfer.Format.JSON_LINES;
+
     private TextWatcher textWatcher;
     private boolean suppressWatcher = false;            // prevents loops
     private Handler handler = new Handler(Looper.getMainLooper());
     private Runnable fetchRunnable;
+    private Request<String> citySuggestionRequest; // Superseded by the next keystroke
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -72,17 +106,24 @@ public class MainActivity extends AppCompatActivity {
 
         // Initialize permission launcher
         initPermissionLauncher();
-
-        // Initialize database with migration
-        database = Room.databaseBuilder(getApplicationContext(),
-                        PackingDatabase.class, "packing_db")
-                .addMigrations(PackingDatabase.MIGRATION_1_2)
-                .allowMainThreadQueries()
-                .build();
+        initTransferLaunchers();
+
+        // Shared database instance (DAO calls run on its executor)
+        database = PackingDatabase.getInstance(this);
+        // Trip and item reads/writes go through the shared in-memory copy
+        repository = TripRepository.getInstance(this);
+        suggestionDao = SuggestionDatabase.getInstance(this).suggestionDao();
+        weatherService = new WeatherService(this);
+        // Replays packed/unpacked toggles that were journaled but not written before the process died
+        PackedStateBuffer.getInstance(this);
+        // Moves long-finished trips to the archive so the trip list stays small (once a day)
+        TripArchiver.getInstance(this).archiveIfDue();
+        // Backup, vacuum and integrity check while the device is idle
+        DatabaseMaintenanceJobService.schedule(this);
 
         initViews();
         setupRecyclerView();
-        loadTrips();
+        observeTrips();
 
         // Create notification channels for enhanced features
         EnhancedNotificationService.createNotificationChannels(this);
@@ -227,25 +268,187 @@ public class MainActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        MenuItem searchItem = menu.add(Menu.NONE, MENU_SEARCH, Menu.NONE, "Search");
+        searchItem.setIcon(android.R.drawable.ic_menu_search);
+        searchItem.setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM);
+        menu.add(Menu.NONE, MENU_ARCHIVE, Menu.NONE, "Archived trips");
+        menu.add(Menu.NONE, MENU_EXPORT, Menu.NONE, "Export trips");
+        menu.add(Menu.NONE, MENU_IMPORT, Menu.NONE, "Import trips");
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == MENU_SEARCH) {
+            startActivity(new Intent(this, SearchActivity.class));
+            return true;
+        }
+        if (item.getItemId() == MENU_ARCHIVE) {
+            showArchivedTrips();
+            return true;
+        }
+        if (item.getItemId() == MENU_EXPORT) {
+            chooseExportFormat();
+            return true;
+        }
+        if (item.getItemId() == MENU_IMPORT) {
+            importLauncher.launch(new String[]{"*/*"});
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    private void showArchivedTrips() {
+        PackingDatabase.executeQuery(() -> database.archiveDao().getArchivedTrips(), archivedTrips -> {
+            if (archivedTrips.isEmpty()) {
+                Toast.makeText(this, "No archived trips", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            String[] labels = new String[archivedTrips.size()];
+            for (int i = 0; i < labels.length; i++) {
+                ArchivedTripSummary archived = archivedTrips.get(i);
+                labels[i] = archived.destination + " (" + archived.startDate + " - " + archived.endDate + "), "
+                        + archived.packedItems + "/" + archived.totalItems + " packed";
+            }
+            new android.app.AlertDialog.Builder(this)
+                    .setTitle("Archived trips")
+                    .setItems(labels, (dialog, which) -> confirmRestore(archivedTrips.get(which)))
+                    .setNegativeButton("Close", null)
+                    .show();
+        });
+    }
+
+    private void initTransferLaunchers() {
+        exportLauncher = registerForActivityResult(
+                new ActivityResultContracts.CreateDocument("application/octet-stream"),
+                uri -> {
+                    if (uri != null) exportTrips(uri, exportFormat);
+                });
+        importLauncher = registerForActivityResult(
+                new ActivityResultContracts.OpenDocument(),
+                uri -> {
+                    if (uri != null) importTrips(uri);
+                });
+    }
+
+    private void chooseExportFormat() {
+        String[] formats = {"JSON lines (readable)", "Binary (compact)"};
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Export trips")
+                .setItems(formats, (dialog, which) -> {
+                    exportFormat = which == 0 ? TripTransfer.Format.JSON_LINES : TripTransfer.Format.BINARY;
+                    exportLauncher.launch(which == 0 ? "packyourbag-trips.jsonl" : "packyourbag-trips.pyb");
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // Both run on the database executor; rows stream through, progress is shown in a dialog
+    private void exportTrips(Uri uri, TripTransfer.Format format) {
+        android.app.AlertDialog dialog = showTransferDialog("Exporting trips");
+        PackingDatabase.databaseExecutor.execute(() -> {
+            String result;
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                long rows = TripTransfer.export(database, out, format,
+                        (done, total) -> postTransferProgress(dialog, done, total));
+                result = "Exported " + rows + " trips, items and archived trips";
+            } catch (Exception e) {
+                Log.e("MainActivity", "Export failed", e);
+                result = "Export failed";
+            }
+            finishTransfer(dialog, result);
+        });
+    }
+
+    private void importTrips(Uri uri) {
+        android.app.AlertDialog dialog = showTransferDialog("Importing trips");
+        PackingDatabase.databaseExecutor.execute(() -> {
+            String result;
+            try (InputStream in = getContentResolver().openInputStream(uri)) {
+                long rows = TripTransfer.importFrom(database, in,
+                        (done, total) -> postTransferProgress(dialog, done, total));
+                result = "Imported " + rows + " trips, items and archived trips";
+            } catch (TripTransfer.FormatException e) {
+                Log.e("MainActivity", "Import failed", e);
+                result = "Import failed: not a valid export file";
+            } catch (IOException e) {
+                Log.e("MainActivity", "Import failed", e);
+                result = "Import failed: could not read the file (" + e.getMessage() + ")";
+            } catch (SQLException e) {
+                // Nothing of the file was kept, TripTransfer deletes what it had written
+                Log.e("MainActivity", "Import failed", e);
+                result = "Import failed: could not save the trips (" + e.getMessage() + ")";
+            } catch (Exception e) {
+                Log.e("MainActivity", "Import failed", e);
+                result = "Import failed: " + e;
+            }
+            finishTransfer(dialog, result);
+        });
+    }
+
+    private android.app.AlertDialog showTransferDialog(String title) {
+        return new android.app.AlertDialog.Builder(this)
+                .setTitle(title)
+                .setMessage("Starting...")
+                .setCancelable(false)
+                .show();
+    }
+
+    private void postTransferProgress(android.app.AlertDialog dialog, long done, long total) {
+        handler.post(() -> dialog.setMessage(done + " of " + total + " rows"));
+    }
+
+    private void finishTransfer(android.app.AlertDialog dialog, String result) {
+        handler.post(() -> {
+            if (dialog.isShowing()) dialog.dismiss();
+            Toast.makeText(this, result, Toast.LENGTH_LONG).show();
+        });
+    }
+
+    private void confirmRestore(ArchivedTripSummary archived) {
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Restore trip")
+                .setMessage("Move the trip to " + archived.destination + " back to your trip list?")
+                .setPositiveButton("Restore", (dialog, which) ->
+                        TripArchiver.getInstance(this).restore(archived.id, tripId -> Toast.makeText(this,
+                                tripId != null ? "Trip restored" : "Trip is no longer archived",
+                                Toast.LENGTH_SHORT).show(),
+                                error -> Toast.makeText(this, "Could not restore the trip",
+                                        Toast.LENGTH_SHORT).show()))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     private void fetchCitySuggestions(String query) {
         cityLoader.setVisibility(View.VISIBLE);
 
         String url = "https://api.openweathermap.org/geo/1.0/direct?q=" + query +
                 "&limit=5&appid=" + API_KEY;
 
-        RequestQueue queue = Volley.newRequestQueue(this);
+        if (citySuggestionRequest != null) {
+            citySuggestionRequest.cancel();
+        }
         StringRequest request = new StringRequest(Request.Method.GET, url,
                 response -> {
                     cityLoader.setVisibility(View.GONE);
                     try {
                         JSONArray arr = new JSONArray(response);
                         List<String> suggestions = new ArrayList<>();
+                        List<GeocodedPlace> places = new ArrayList<>();
+                        long now = System.currentTimeMillis();
                         for (int i = 0; i < arr.length(); i++) {
                             JSONObject obj = arr.getJSONObject(i);
                             String city = obj.getString("name");
                             String country = obj.getString("country");
                             suggestions.add(city + ", " + country);
+                            // Picking a suggestion then needs no geocoding request
+                            places.add(new GeocodedPlace(WeatherService.normalizePlace(city + ", " + country),
+                                    obj.getDouble("lat"), obj.getDouble("lon"), city, country, now));
                         }
+                        weatherService.cacheSuggestedPlaces(places);
                         ArrayAdapter<String> adapter = new ArrayAdapter<>(
                                 MainActivity.this,
                                 android.R.layout.simple_dropdown_item_1line,
@@ -264,7 +467,7 @@ public class MainActivity extends AppCompatActivity {
                     Toast.makeText(MainActivity.this, "Error fetching cities", Toast.LENGTH_SHORT).show();
                 });
 
-        queue.add(request);
+        citySuggestionRequest = NetworkClient.getInstance(this).add(request, this);
     }
 
     private void showStartDatePicker() {
@@ -354,8 +557,12 @@ public class MainActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         btnCreateTrip.setEnabled(false);
 
+        // Capture the form state now, onResume may reset it before the callbacks run
+        final String tripStartDate = startDate;
+        final String tripEndDate = endDate;
+        final int tripDuration = calculatedDuration;
+
         // Use the new weather service for detailed weather data
-        WeatherService weatherService = new WeatherService(this);
         weatherService.getDetailedWeather(destination, new WeatherService.WeatherCallback() {
             @Override
             public void onSuccess(WeatherService.WeatherData weatherData) {
@@ -363,28 +570,29 @@ public class MainActivity extends AppCompatActivity {
                 String fullDestination = weatherData.cityName + ", " + weatherData.country;
                 String weatherInfo = weatherService.formatWeatherSummary(weatherData);
 
-                Trip trip = new Trip(fullDestination, calculatedDuration, tripType,
-                        startDate, endDate, weatherInfo, System.currentTimeMillis());
-                long tripId = database.tripDao().insertTrip(trip);
-
-                // Generate AI-powered recommendations
-                generateAIRecommendations(tripId, destination, tripType, weatherData);
-
-                // Start weather monitoring for this trip (only if permission is granted)
-                if (hasNotificationPermission()) {
-                    EnhancedNotificationService.WeatherMonitoringManager.startMonitoring(
-                            MainActivity.this, destination, calculatedDuration, tripType,
-                            startDate, endDate, tripId);
-                }
+                Trip trip = new Trip(fullDestination, tripDuration, tripType,
+                        tripStartDate, tripEndDate, weatherInfo, System.currentTimeMillis());
+                PackingDatabase.executeQuery(() -> repository.insertTrip(trip), tripId -> {
+                    // Generate AI-powered recommendations from the weather just fetched
+                    generateAIRecommendations(tripId, destination, tripType, tripDuration,
+                            tripStartDate, tripEndDate, weatherData);
+
+                    // Start weather monitoring for this trip (only if permission is granted)
+                    if (hasNotificationPermission()) {
+                        EnhancedNotificationService.WeatherMonitoringManager.startMonitoring(
+                                MainActivity.this, destination, tripDuration, tripType,
+                                tripStartDate, tripEndDate, tripId);
+                    }
 
-                progressBar.setVisibility(View.GONE);
-                btnCreateTrip.setEnabled(true);
+                    progressBar.setVisibility(View.GONE);
+                    btnCreateTrip.setEnabled(true);
+                }, MainActivity.this::onTripNotSaved);
             }
 
             @Override
             public void onError(String error) {
                 // Fallback to original method
-                handleWeatherError(destination, tripType);
+                handleWeatherError(destination, tripType, tripDuration, tripStartDate, tripEndDate);
             }
         });
     }
@@ -398,17 +606,15 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void generateAIRecommendations(long tripId, String destination, String tripType,
+                                           int duration, String tripStartDate, String tripEndDate,
                                            WeatherService.WeatherData weatherData) {
 
         AIRecommendationService aiService = new AIRecommendationService(this);
-        aiService.generateSmartRecommendations(destination, calculatedDuration, tripType,
-                startDate, endDate,
+        aiService.generateSmartRecommendations(destination, duration, tripType,
+                tripStartDate, tripEndDate, weatherData,
                 new AIRecommendationService.RecommendationCallback() {
                     @Override
                     public void onSuccess(AIRecommendationService.RecommendationData recommendations) {
-                        // Add AI-generated items to the database
-                        addAIRecommendationsToDatabase(tripId, recommendations);
-
                         // Show notification if there are important alerts - ADD NULL CHECK
                         if (hasNotificationPermission() && recommendations.weatherAlert != null && !recommendations.weatherAlert.isEmpty()) {
                             EnhancedNotificationService notificationService =
@@ -418,65 +624,79 @@ public class MainActivity extends AppCompatActivity {
                                     String.valueOf(tripId));
                         }
 
-                        runOnUiThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                Intent intent = new Intent(MainActivity.this, PackingListActivity.class);
-                                intent.putExtra("tripId", tripId);
-                                startActivity(intent);
-                            }
-                        });
+                        // Add AI-generated items to the database, then open the list
+                        PackingDatabase.executeWrite(
+                                () -> addAIRecommendationsToDatabase(tripId, recommendations),
+                                () -> openPackingList(tripId), e -> onItemsNotSaved(tripId));
                     }
 
                     @Override
                     public void onError(String error) {
                         // Fallback to basic recommendations
-                        generateSmartSuggestions(tripId, tripType, calculatedDuration, 20.0, "Clear", 50);
                         Toast.makeText(MainActivity.this,
                                 "Using basic recommendations: " + error, Toast.LENGTH_SHORT).show();
 
-                        runOnUiThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                Intent intent = new Intent(MainActivity.this, PackingListActivity.class);
-                                intent.putExtra("tripId", tripId);
-                                startActivity(intent);
-                            }
-                        });
+                        PackingDatabase.executeWrite(
+                                () -> repository.insertItems(tripId,
+                                        buildSmartSuggestions(tripId, tripType, duration, 20.0, "Clear", 50)),
+                                () -> openPackingList(tripId), e -> onItemsNotSaved(tripId));
                     }
                 });
     }
 
+    // The trip insert failed: give the form back so the user can try again
+    private void onTripNotSaved(Exception error) {
+        progressBar.setVisibility(View.GONE);
+        btnCreateTrip.setEnabled(true);
+        Toast.makeText(this, "Could not save the trip, please try again", Toast.LENGTH_SHORT).show();
+    }
+
+    // The trip exists but its suggested items didn't make it, open the (empty) list anyway
+    private void onItemsNotSaved(long tripId) {
+        Toast.makeText(this, "Could not add the suggested items", Toast.LENGTH_SHORT).show();
+        openPackingList(tripId);
+    }
+
+    private void openPackingList(long tripId) {
+        Intent intent = new Intent(MainActivity.this, PackingListActivity.class);
+        intent.putExtra("tripId", tripId);
+        startActivity(intent);
+    }
+
+    // Runs on the database executor
     private void addAIRecommendationsToDatabase(long tripId, AIRecommendationService.RecommendationData recommendations) {
+        List<PackingListItem> items = new ArrayList<>();
+
         // Add essential items
         for (String item : recommendations.essentialItems) {
-            database.packingItemDao().insertItem(
-                    new PackingItem(tripId, item, "Essential", false));
+            items.add(new PackingListItem(tripId, item, "Essential", false));
         }
 
         // Add weather-specific items
         for (String item : recommendations.weatherSpecificItems) {
-            database.packingItemDao().insertItem(
-                    new PackingItem(tripId, item, "Weather-Specific", false));
+            items.add(new PackingListItem(tripId, item, "Weather-Specific", false));
         }
 
         // Add activity-based items
         for (String item : recommendations.activityBasedItems) {
-            database.packingItemDao().insertItem(
-                    new PackingItem(tripId, item, "Activity", false));
+            items.add(new PackingListItem(tripId, item, "Activity", false));
         }
 
         // Add safety items
         for (String item : recommendations.safetyItems) {
-            database.packingItemDao().insertItem(
-                    new PackingItem(tripId, item, "Safety", false));
+            items.add(new PackingListItem(tripId, item, "Safety", false));
         }
+
+        // One transaction for the whole list
+        repository.insertItems(tripId, items);
     }
 
     private void fetchWeatherAndCreateTrip(String destination, String tripType) {
+        final String tripStartDate = startDate;
+        final String tripEndDate = endDate;
+        final int tripDuration = calculatedDuration;
         String url = "https://api.openweathermap.org/data/2.5/weather?q=" + destination + "&appid=" + API_KEY + "&units=metric";
 
-        RequestQueue queue = Volley.newRequestQueue(this);
         StringRequest stringRequest = new StringRequest(Request.Method.GET, url,
                 response -> {
                     try {
@@ -500,132 +720,62 @@ public class MainActivity extends AppCompatActivity {
                                 "Humidity: " + humidity + "%";
 
                         // Create trip with weather data
-                        Trip trip = new Trip(fullDestination, calculatedDuration, tripType,
-                                startDate, endDate, weatherInfo, System.currentTimeMillis());
-                        long tripId = database.tripDao().insertTrip(trip);
-
-                        // Generate smart suggestions based on weather
-                        generateSmartSuggestions(tripId, tripType, calculatedDuration, temp, weatherCondition, humidity);
-
-                        progressBar.setVisibility(View.GONE);
-                        btnCreateTrip.setEnabled(true);
+                        Trip trip = new Trip(fullDestination, tripDuration, tripType,
+                                tripStartDate, tripEndDate, weatherInfo, System.currentTimeMillis());
 
-                        Intent intent = new Intent(MainActivity.this, PackingListActivity.class);
-                        intent.putExtra("tripId", tripId);
-                        startActivity(intent);
+                        // Generate smart suggestions based on weather (tripId is assigned on insert)
+                        PackingDatabase.executeQuery(() -> repository.insertTripWithItems(trip,
+                                buildSmartSuggestions(0, tripType, tripDuration, temp, weatherCondition, humidity)), tripId -> {
+                            progressBar.setVisibility(View.GONE);
+                            btnCreateTrip.setEnabled(true);
+                            openPackingList(tripId);
+                        }, this::onTripNotSaved);
 
                     } catch (Exception e) {
-                        handleWeatherError(destination, tripType);
+                        handleWeatherError(destination, tripType, tripDuration, tripStartDate, tripEndDate);
                     }
                 },
-                error -> handleWeatherError(destination, tripType));
+                error -> handleWeatherError(destination, tripType, tripDuration, tripStartDate, tripEndDate));
 
-        queue.add(stringRequest);
+        NetworkClient.getInstance(this).add(stringRequest, this);
     }
 
-    private void handleWeatherError(String destination, String tripType) {
+    private void handleWeatherError(String destination, String tripType, int duration,
+                                    String tripStartDate, String tripEndDate) {
         // Create trip without weather data
-        Trip trip = new Trip(destination, calculatedDuration, tripType,
-                startDate, endDate, "Weather data unavailable", System.currentTimeMillis());
-        long tripId = database.tripDao().insertTrip(trip);
-
-        // Generate basic suggestions
-        generateSmartSuggestions(tripId, tripType, calculatedDuration, 20.0, "Clear", 50);
-
-        progressBar.setVisibility(View.GONE);
-        btnCreateTrip.setEnabled(true);
-
-        Toast.makeText(this, "Trip created without weather data", Toast.LENGTH_SHORT).show();
-
-        Intent intent = new Intent(this, PackingListActivity.class);
-        intent.putExtra("tripId", tripId);
-        startActivity(intent);
+        Trip trip = new Trip(destination, duration, tripType,
+                tripStartDate, tripEndDate, "Weather data unavailable", System.currentTimeMillis());
+
+        // Generate basic suggestions (tripId is assigned on insert)
+        PackingDatabase.executeQuery(() -> repository.insertTripWithItems(trip,
+                buildSmartSuggestions(0, tripType, duration, 20.0, "Clear", 50)), tripId -> {
+            progressBar.setVisibility(View.GONE);
+            btnCreateTrip.setEnabled(true);
+
+            Toast.makeText(this, "Trip created without weather data", Toast.LENGTH_SHORT).show();
+            openPackingList(tripId);
+        }, this::onTripNotSaved);
     }
 
-    private void generateSmartSuggestions(long tripId, String tripType, int duration, double temp, String weatherCondition, int humidity) {
-        // Basic items for all trips
-        database.packingItemDao().insertItem(new PackingItem(tripId, "Underwear (" + duration + " pairs)", "Clothing", false));
-        database.packingItemDao().insertItem(new PackingItem(tripId, "Socks (" + duration + " pairs)", "Clothing", false));
-        database.packingItemDao().insertItem(new PackingItem(tripId, "Toothbrush", "Personal Care", false));
-        database.packingItemDao().insertItem(new PackingItem(tripId, "Toothpaste", "Personal Care", false));
-        database.packingItemDao().insertItem(new PackingItem(tripId, "Phone Charger", "Electronics", false));
-        database.packingItemDao().insertItem(new PackingItem(tripId, "Passport/ID", "Documents", false));
-
-        // Trip-specific suggestions
-        switch (tripType.toLowerCase()) {
-            case "business":
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Formal Suits (" + Math.min(duration, 3) + ")", "Clothing", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Dress Shoes", "Clothing", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Business Cards", "Documents", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Laptop", "Electronics", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Laptop Charger", "Electronics", false));
-                break;
-            case "beach":
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Swimsuit (2)", "Clothing", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Sunscreen SPF 30+", "Personal Care", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Beach Towel", "Accessories", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Flip Flops", "Clothing", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Sunglasses", "Accessories", false));
-                break;
-            case "adventure":
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Hiking Boots", "Clothing", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "First Aid Kit", "Safety", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Water Bottle", "Accessories", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Backpack", "Accessories", false));
-                database.packingItemDao().insertItem(new PackingItem(tripId, "Flashlight", "Safety", false));
-                break;
-        }
-
-        // Weather-based suggestions
-        if (temp < 10) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Heavy Winter Jacket", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Gloves", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Warm Hat", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Scarf", "Clothing", false));
-        } else if (temp < 20) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Light Jacket", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Long Pants", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Closed Shoes", "Clothing", false));
-        } else if (temp >= 30) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Light T-shirts", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Shorts", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Sandals", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Extra Sunscreen", "Personal Care", false));
-        }
-
-        // Condition-based suggestions
-        if (weatherCondition.toLowerCase().contains("rain")) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Rain Jacket", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Umbrella", "Accessories", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Waterproof Shoes", "Clothing", false));
-        }
-
-        if (weatherCondition.toLowerCase().contains("snow")) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Winter Boots", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Thermal Underwear", "Clothing", false));
-        }
-
-        // Humidity-based suggestions
-        if (humidity > 70) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Moisture-wicking Clothes", "Clothing", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Extra Deodorant", "Personal Care", false));
-        }
-
-        // Duration-based suggestions
-        if (duration > 7) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Laundry Bag", "Accessories", false));
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Laundry Detergent Pods", "Accessories", false));
-        }
-
-        if (duration > 14) {
-            database.packingItemDao().insertItem(new PackingItem(tripId, "Extra Toiletries", "Personal Care", false));
+    // Builds the default packing list from the suggestion catalog; runs on the database
+    // executor and callers insert the result in one batch
+    private List<PackingListItem> buildSmartSuggestions(long tripId, String tripType, int duration, double temp, String weatherCondition, int humidity) {
+        List<PackingListItem> items = new ArrayList<>();
+        for (SuggestedItem suggestion : suggestionDao.getSuggestions(SuggestionDatabase.LIST_SMART,
+                tripType, duration, temp, weatherCondition, humidity)) {
+            items.add(new PackingListItem(tripId, suggestion.itemName, suggestion.category, false));
         }
+        return items;
     }
 
     private void setupRecyclerView() {
         tripAdapter = new TripAdapter(this::openTrip, this::deleteTrip);
-        recyclerTrips.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerTrips.setLayoutManager(layoutManager);
         recyclerTrips.setAdapter(tripAdapter);
+        tripScrollListener = new PagingScrollListener(layoutManager, () -> tripPager.loadNextPage(),
+                () -> tripPager.loadPreviousPage());
+        recyclerTrips.addOnScrollListener(tripScrollListener);
     }
 
     private void openTrip(Trip trip) {
@@ -640,28 +790,39 @@ public class MainActivity extends AppCompatActivity {
                 .setMessage("Are you sure you want to delete this trip?\n\n" + trip.destination +
                         "\n(" + trip.startDate + " to " + trip.endDate + ")")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    // Delete all packing items for this trip
-                    database.packingItemDao().deleteItemsForTrip(trip.id);
-                    // Delete the trip
-                    database.tripDao().deleteTrip(trip);
-                    // Refresh the list
-                    loadTrips();
-                    Toast.makeText(MainActivity.this, "Trip deleted", Toast.LENGTH_SHORT).show();
+                    // Delete the trip and all of its packing items in one transaction
+                    // The trip list refreshes itself through observeTrips()
+                    PackingDatabase.executeWrite(() -> repository.deleteTripWithItems(trip), () ->
+                            Toast.makeText(MainActivity.this, "Trip deleted", Toast.LENGTH_SHORT).show(),
+                            error -> Toast.makeText(MainActivity.this, "Could not delete the trip",
+                                    Toast.LENGTH_SHORT).show());
                 })
                 .setNegativeButton("Cancel", null)
                 .setIcon(android.R.drawable.ic_dialog_alert)
                 .show();
     }
 
-    private void loadTrips() {
-        List<Trip> trips = database.tripDao().getAllTrips();
-        tripAdapter.updateTrips(trips);
+    // Trips are paged newest first as the list scrolls; a write to trips re-reads only the
+    // window of pages the pager holds, from memory when the repository already holds them
+    private void observeTrips() {
+        tripPager = new KeysetPagedLiveData<>(database, TRIP_PAGE_SIZE, repository::getTripsPage, "trips");
+        tripPager.observe(this, trips -> {
+            tripScrollListener.keepPosition(tripPager.getStartShift());
+            tripAdapter.updateTrips(trips);
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (tripPager != null) {
+            tripPager.release();
+        }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        loadTrips();
 
         // Reset form
         editDestination.setText("");
@@ -681,23 +842,21 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        List<Trip> trips = database.tripDao().getAllTrips();
-        for (Trip trip : trips) {
-            // Use trip.startDate instead of trip.date
-            if (trip.startDate != null && PackingUtils.isUpcomingTrip(trip.startDate, 3)) { // Check trips in next 3 days
-                List<PackingItem> items = database.packingItemDao().getItemsForTrip(trip.id);
-                int incompleteItems = 0;
-                for (PackingItem item : items) {
-                    if (!item.isPacked) incompleteItems++;
-                }
+        // Trips starting in the next 3 days that still have unpacked items
+        long today = PackingUtils.todayEpochDay();
+        PackingDatabase.executeQuery(() -> repository.getIncompleteTripsStartingBetween(today, today + 3),
+                trips -> {
+                    if (trips.isEmpty()) {
+                        return;
+                    }
 
-                if (incompleteItems > 0) {
                     EnhancedNotificationService notificationService =
-                            new EnhancedNotificationService(this);
-                    notificationService.showPackingReminderWithWeather(
-                            trip.destination, incompleteItems, trip.weatherInfo);
-                }
-            }
-        }
+                            new EnhancedNotificationService(getApplicationContext());
+                    for (TripProgress progress : trips) {
+                        int incompleteItems = progress.totalItems - progress.packedItems;
+                        notificationService.showPackingReminderWithWeather(
+                                progress.trip.destination, incompleteItems, progress.trip.weatherInfo);
+                    }
+                }, error -> Log.w("MainActivity", "Could not check upcoming trips", error));
     }
 }
\ No newline at end of file
@@ -7,38 +7,49 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 
 import com.example.packyourbag.Adapter.OverviewAdapter;
 import com.example.packyourbag.Database.PackingDatabase;
-import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.Database.TrackedLiveData;
+import com.example.packyourbag.Database.TripRepository;
+import com.example.packyourbag.DatabaseEntities.DurationStats;
+import com.example.packyourbag.DatabaseEntities.ItemFrequency;
+import com.example.packyourbag.DatabaseEntities.PackingStats;
 import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.DatabaseEntities.TripProgress;
+import com.example.packyourbag.DatabaseEntities.TripTypeStats;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
 public class OverviewActivity extends AppCompatActivity {
+    private static final int TOP_ITEMS = 5;
+
     private PackingDatabase database;
     private RecyclerView recyclerOverview;
     private OverviewAdapter overviewAdapter;
     private TextView textOverviewStats;
+    private TrackedLiveData<List<TripProgress>> tripProgress;
+
+    // Latest value of each statistics query; the text is rebuilt whenever one of them changes
+    private PackingStats packingStats = new PackingStats();
+    private List<ItemFrequency> mostListedItems = Collections.emptyList();
+    private List<ItemFrequency> mostUnpackedItems = Collections.emptyList();
+    private List<TripTypeStats> tripTypeStats = Collections.emptyList();
+    private List<DurationStats> durationStats = Collections.emptyList();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_overview);
 
-        database = Room.databaseBuilder(getApplicationContext(),
-                        PackingDatabase.class, "packing_db")
-                .allowMainThreadQueries()
-                .build();
+        database = PackingDatabase.getInstance(this);
 
         initViews();
         setupRecyclerView();
-        loadOverviewData();
+        observeOverviewData();
     }
 
     private void initViews() {
@@ -60,52 +71,56 @@ public class OverviewActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
-    private void loadOverviewData() {
-        List<Trip> allTrips = database.tripDao().getAllTrips();
-        List<OverviewAdapter.TripOverview> overviewItems = new ArrayList<>();
-
-        int totalTrips = allTrips.size();
-        int totalItems = 0;
-        int totalPackedItems = 0;
-        int completedTrips = 0;
-
-        for (Trip trip : allTrips) {
-            List<PackingItem> items = database.packingItemDao().getItemsForTrip(trip.id);
-            int tripItems = items.size();
-            int tripPackedItems = 0;
-
-            for (PackingItem item : items) {
-                if (item.isPacked) tripPackedItems++;
-            }
-
-            totalItems += tripItems;
-            totalPackedItems += tripPackedItems;
+    // Each query is re-run only after the tables it reads change. The trip list comes from the
+    // shared repository (memory when another screen already loaded it) and the statistics from
+    // the trigger-maintained stats tables, so they cost the same however many trips there are
+    private void observeOverviewData() {
+        tripProgress = TripRepository.getInstance(this).observeAllTripProgress();
+        tripProgress.observe(this, progressList ->
+                overviewAdapter.updateOverviewItems(buildOverviewItems(progressList)));
+
+        database.statsDao().observePackingStats().observe(this, stats -> {
+            packingStats = stats;
+            updateStatistics();
+        });
+        database.statsDao().observeMostListedItems(TOP_ITEMS).observe(this, items -> {
+            mostListedItems = items;
+            updateStatistics();
+        });
+        database.statsDao().observeMostUnpackedItems(TOP_ITEMS).observe(this, items -> {
+            mostUnpackedItems = items;
+            updateStatistics();
+        });
+        database.statsDao().observeTripTypeStats().observe(this, stats -> {
+            tripTypeStats = stats;
+            updateStatistics();
+        });
+        database.statsDao().observeDurationStats().observe(this, stats -> {
+            durationStats = stats;
+            updateStatistics();
+        });
+    }
 
-            if (tripItems > 0 && tripPackedItems == tripItems) {
-                completedTrips++;
-            }
+    private List<OverviewAdapter.TripOverview> buildOverviewItems(List<TripProgress> progressList) {
+        List<OverviewAdapter.TripOverview> overviewItems = new ArrayList<>(progressList.size());
 
-            // Calculate completion percentage
-            int completionPercentage = tripItems > 0 ? (tripPackedItems * 100) / tripItems : 0;
-
-            // Create overview item
-            OverviewAdapter.TripOverview overview = new OverviewAdapter.TripOverview(
-                    trip,
-                    tripItems,
-                    tripPackedItems,
-                    completionPercentage
-            );
-            overviewItems.add(overview);
+        for (TripProgress progress : progressList) {
+            overviewItems.add(new OverviewAdapter.TripOverview(
+                    progress.trip,
+                    progress.totalItems,
+                    progress.packedItems,
+                    progress.getCompletionPercentage()
+            ));
         }
 
-        // Update adapter
-        overviewAdapter.updateOverviewItems(overviewItems);
-
-        // Update statistics
-        updateStatistics(totalTrips, totalItems, totalPackedItems, completedTrips);
+        return overviewItems;
     }
 
-    private void updateStatistics(int totalTrips, int totalItems, int totalPackedItems, int completedTrips) {
+    private void updateStatistics() {
+        int totalTrips = packingStats.totalTrips;
+        int totalItems = packingStats.totalItems;
+        int totalPackedItems = packingStats.packedItems;
+        int completedTrips = packingStats.completedTrips;
         StringBuilder stats = new StringBuilder();
 
         stats.append("Total Trips: ").append(totalTrips).append("\n");
@@ -120,12 +135,47 @@ public class OverviewActivity extends AppCompatActivity {
             stats.append("Overall Progress: 0%");
         }
 
+        if (!tripTypeStats.isEmpty()) {
+            stats.append("\n\nCompletion by Trip Type:");
+            for (TripTypeStats type : tripTypeStats) {
+                stats.append("\n").append(type.tripType.isEmpty() ? "Other" : type.tripType).append(": ")
+                        .append(type.getCompletionPercentage()).append("% of ").append(type.tripCount)
+                        .append(type.tripCount == 1 ? " trip" : " trips");
+            }
+        }
+
+        if (!durationStats.isEmpty()) {
+            stats.append("\n\nAverage List Size by Duration:");
+            for (DurationStats duration : durationStats) {
+                stats.append("\n").append(duration.duration).append(duration.duration == 1 ? " day: " : " days: ")
+                        .append(String.format(Locale.getDefault(), "%.1f", duration.getAverageListSize()))
+                        .append(" items");
+            }
+        }
+
+        if (!mostListedItems.isEmpty()) {
+            stats.append("\n\nMost Listed Items:");
+            for (ItemFrequency item : mostListedItems) {
+                stats.append("\n").append(item.itemName).append(" (").append(item.itemCount).append(")");
+            }
+        }
+
+        if (!mostUnpackedItems.isEmpty()) {
+            stats.append("\n\nCurrently Unpacked:");
+            for (ItemFrequency item : mostUnpackedItems) {
+                stats.append("\n").append(item.itemName).append(" (").append(item.unpackedCount)
+                        .append(" of ").append(item.itemCount).append(")");
+            }
+        }
+
         textOverviewStats.setText(stats.toString());
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-        loadOverviewData(); // Refresh data when returning to this activity
+    protected void onDestroy() {
+        super.onDestroy();
+        if (tripProgress != null) {
+            tripProgress.release();
+        }
     }
 }
\ No newline at end of file
@@ -1,29 +1,47 @@
 package com.example.packyourbag;
 
 import android.app.AlertDialog;
+import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import androidx.room.Room;
 
 import com.example.packyourbag.Adapter.PackingItemAdapter;
+import com.example.packyourbag.Database.KeysetPagedLiveData;
+import com.example.packyourbag.Database.PackedStateBuffer;
 import com.example.packyourbag.Database.PackingDatabase;
-import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.Database.TrackedLiveData;
+import com.example.packyourbag.Database.TripRepository;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.PackingTemplate;
 import com.example.packyourbag.DatabaseEntities.Trip;
+import com.example.packyourbag.DatabaseEntities.TripProgress;
+import com.example.packyourbag.Utils.PagingScrollListener;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
 public class PackingListActivity extends AppCompatActivity {
+    private static final int ITEM_PAGE_SIZE = 50;
+    private static final int MENU_CLONE_TRIP = 1;
+    private static final int MENU_SAVE_TEMPLATE = 2;
+    private static final int MENU_APPLY_TEMPLATE = 3;
+
     private PackingDatabase database;
+    private TripRepository repository;
+    private PackedStateBuffer toggleBuffer;
     private RecyclerView recyclerItems;
     private PackingItemAdapter itemAdapter;
     private EditText editNewItem;
@@ -33,8 +51,12 @@ public class PackingListActivity extends AppCompatActivity {
     private TextView textProgress, textTripInfo, textTripCreatedDate;
     private long tripId;
     private Trip currentTrip;
-    private List<PackingItem> allItems = new ArrayList<>();
-    private List<PackingItem> filteredItems = new ArrayList<>();
+    private KeysetPagedLiveData<PackingListItem> itemPager;
+    private PagingScrollListener itemScrollListener;
+    private TrackedLiveData<TripProgress> tripObserver;
+    private List<PackingListItem> loadedItems = new ArrayList<>();
+    // Counts for the whole trip, kept up to date by observeTrip()
+    private int totalItems, packedItems;
     private String currentFilter = "All Categories";
 
     @Override
@@ -42,10 +64,9 @@ public class PackingListActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_packing_list);
 
-        database = Room.databaseBuilder(getApplicationContext(),
-                        PackingDatabase.class, "packing_db")
-                .allowMainThreadQueries()
-                .build();
+        database = PackingDatabase.getInstance(this);
+        repository = TripRepository.getInstance(this);
+        toggleBuffer = PackedStateBuffer.getInstance(this);
 
         tripId = getIntent().getLongExtra("tripId", -1);
         if (tripId == -1) {
@@ -53,12 +74,11 @@ public class PackingListActivity extends AppCompatActivity {
             return;
         }
 
-        currentTrip = database.tripDao().getTripById(tripId);
         initViews();
         setupRecyclerView();
         setupFilterSpinner();
-        loadItems();
-        updateProgress();
+        observeTrip();
+        observeItems();
     }
 
     private void initViews() {
@@ -75,8 +95,6 @@ public class PackingListActivity extends AppCompatActivity {
         textTripInfo = findViewById(R.id.textTripInfo);
         textTripCreatedDate = findViewById(R.id.textTripCreatedDate);
 
-        updateTripInfo();
-
         // Setup category spinner for adding items
         ArrayAdapter<CharSequence> adapter = ArrayAdapter.createFromResource(this,
                 R.array.enhanced_item_categories, android.R.layout.simple_spinner_item);
@@ -121,21 +139,13 @@ public class PackingListActivity extends AppCompatActivity {
     }
 
     private void filterItemsByCategory(String category) {
-        currentFilter = category;
-        filteredItems.clear();
-
-        if (category.equals("All Categories")) {
-            filteredItems.addAll(allItems);
-        } else {
-            for (PackingItem item : allItems) {
-                if (item.category.equals(category)) {
-                    filteredItems.add(item);
-                }
-            }
+        if (category.equals(currentFilter)) {
+            return;
         }
 
-        itemAdapter.updateItems(filteredItems);
-        updateProgress(); // Update progress based on filtered items if needed
+        // The filter is applied in SQL, so switching it starts a new paged query
+        currentFilter = category;
+        observeItems();
     }
 
     private void clearFilter() {
@@ -143,6 +153,24 @@ public class PackingListActivity extends AppCompatActivity {
         filterItemsByCategory("All Categories");
     }
 
+    // Delivered again only when trips or packing_items are written (e.g. a background weather
+    // update); the repository answers from memory when it already holds the trip and its list
+    private void observeTrip() {
+        tripObserver = repository.observeTripProgress(tripId);
+        tripObserver.observe(this, progress -> {
+            if (progress == null) {
+                finish();
+                return;
+            }
+            currentTrip = progress.trip;
+            totalItems = progress.totalItems;
+            // Include toggles that are still waiting in the write-behind buffer
+            packedItems = progress.packedItems + toggleBuffer.getPackedDelta(tripId);
+            updateTripInfo();
+            updateProgress();
+        });
+    }
+
     private void updateTripInfo() {
         textTripInfo.setText(currentTrip.destination + " (" +
                 currentTrip.startDate + " to " + currentTrip.endDate + ") - " +
@@ -160,6 +188,8 @@ public class PackingListActivity extends AppCompatActivity {
     }
 
     private void editTripTitle() {
+        if (currentTrip == null) return;
+
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Edit Trip Title");
 
@@ -175,10 +205,15 @@ public class PackingListActivity extends AppCompatActivity {
         builder.setPositiveButton("Save", (dialog, which) -> {
             String newDestination = editDestination.getText().toString().trim();
             if (!newDestination.isEmpty()) {
-                currentTrip.destination = newDestination;
-                database.tripDao().updateTrip(currentTrip);
-                updateTripInfo();
-                Toast.makeText(this, "Trip title updated", Toast.LENGTH_SHORT).show();
+                long editedTripId = currentTrip.id;
+                int expectedVersion = currentTrip.version;
+                // observeTrip() redraws the title once the row changes
+                PackingDatabase.executeQuery(
+                        () -> repository.setDestination(editedTripId, newDestination, expectedVersion),
+                        updated -> Toast.makeText(this, updated > 0
+                                ? "Trip title updated"
+                                : "Trip was updated in the background, please try again", Toast.LENGTH_SHORT).show(),
+                        error -> Toast.makeText(this, "Could not update the trip title", Toast.LENGTH_SHORT).show());
             }
         });
 
@@ -195,14 +230,16 @@ public class PackingListActivity extends AppCompatActivity {
             return;
         }
 
-        PackingItem item = new PackingItem(tripId, itemName, category, false);
-        database.packingItemDao().insertItem(item);
+        PackingListItem item = new PackingListItem(tripId, itemName, category, false);
         editNewItem.setText("");
-        loadItems();
-        updateProgress();
+        // The item pager reloads on its own once packing_items changes
+        PackingDatabase.executeWrite(() -> repository.insertItems(tripId, Collections.singletonList(item)), null,
+                error -> Toast.makeText(this, "Could not add \"" + itemName + "\"", Toast.LENGTH_SHORT).show());
     }
 
     private void showWeatherInfo() {
+        if (currentTrip == null) return;
+
         Intent intent = new Intent(this, WeatherActivity.class);
         intent.putExtra("destination", currentTrip.destination);
         intent.putExtra("weatherInfo", currentTrip.weatherInfo);
@@ -211,36 +248,156 @@ public class PackingListActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(Menu.NONE, MENU_CLONE_TRIP, Menu.NONE, "Clone trip");
+        menu.add(Menu.NONE, MENU_SAVE_TEMPLATE, Menu.NONE, "Save as template");
+        menu.add(Menu.NONE, MENU_APPLY_TEMPLATE, Menu.NONE, "Apply template");
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == MENU_CLONE_TRIP) {
+            cloneTrip();
+            return true;
+        }
+        if (item.getItemId() == MENU_SAVE_TEMPLATE) {
+            saveAsTemplate();
+            return true;
+        }
+        if (item.getItemId() == MENU_APPLY_TEMPLATE) {
+            showTemplates();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    // Same destination, type, length and list on new dates; the items are copied in SQL
+    private void cloneTrip() {
+        if (currentTrip == null) return;
+        Trip source = currentTrip;
+        Calendar calendar = Calendar.getInstance();
+        new DatePickerDialog(this, (view, year, month, dayOfMonth) -> {
+            Calendar start = Calendar.getInstance();
+            start.set(year, month, dayOfMonth);
+            Calendar end = (Calendar) start.clone();
+            end.add(Calendar.DAY_OF_MONTH, Math.max(0, source.duration - 1));
+            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+
+            Trip clone = new Trip(source.destination, source.duration, source.tripType,
+                    sdf.format(start.getTime()), sdf.format(end.getTime()), "Weather data unavailable",
+                    System.currentTimeMillis());
+            PackingDatabase.executeQuery(() -> repository.cloneTrip(source.id, clone), newTripId -> {
+                Toast.makeText(this, "Trip cloned", Toast.LENGTH_SHORT).show();
+                Intent intent = new Intent(this, PackingListActivity.class);
+                intent.putExtra("tripId", newTripId);
+                startActivity(intent);
+            }, error -> Toast.makeText(this, "Could not clone the trip", Toast.LENGTH_SHORT).show());
+        }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
+    }
+
+    private void saveAsTemplate() {
+        if (currentTrip == null) return;
+        EditText editName = new EditText(this);
+        editName.setText(currentTrip.tripType + " - " + currentTrip.destination);
+        editName.selectAll();
+
+        new AlertDialog.Builder(this)
+                .setTitle("Save as template")
+                .setView(editName)
+                .setPositiveButton("Save", (dialog, which) -> {
+                    String name = editName.getText().toString().trim();
+                    if (name.isEmpty()) {
+                        Toast.makeText(this, "Template name cannot be empty", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    // Only which items are on the list is saved, not their packed state
+                    PackingDatabase.executeWrite(() -> database.packingItemDao().saveTemplate(tripId, name),
+                            () -> Toast.makeText(this, "Template saved", Toast.LENGTH_SHORT).show(),
+                            error -> Toast.makeText(this, "Could not save the template", Toast.LENGTH_SHORT).show());
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void showTemplates() {
+        PackingDatabase.executeQuery(() -> database.packingItemDao().getTemplates(), templates -> {
+            if (templates.isEmpty()) {
+                Toast.makeText(this, "No saved templates", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            String[] names = new String[templates.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = templates.get(i).name;
+            }
+            new AlertDialog.Builder(this)
+                    .setTitle("Apply template")
+                    .setItems(names, (dialog, which) -> confirmTemplate(templates.get(which)))
+                    .setNegativeButton("Cancel", null)
+                    .show();
+        });
+    }
+
+    private void confirmTemplate(PackingTemplate template) {
+        new AlertDialog.Builder(this)
+                .setTitle(template.name)
+                .setMessage("Add the items of this template that the list doesn't have yet?")
+                // The item pager reloads on its own once packing_items changes
+                .setPositiveButton("Apply", (dialog, which) -> PackingDatabase.executeWrite(
+                        () -> repository.applyTemplate(template.id, tripId, System.currentTimeMillis()),
+                        () -> Toast.makeText(this, "Template applied", Toast.LENGTH_SHORT).show(),
+                        error -> Toast.makeText(this, "Could not apply the template", Toast.LENGTH_SHORT).show()))
+                .setNeutralButton("Delete", (dialog, which) -> PackingDatabase.executeWrite(
+                        () -> database.packingItemDao().deleteTemplate(template.id),
+                        () -> Toast.makeText(this, "Template deleted", Toast.LENGTH_SHORT).show(),
+                        error -> Toast.makeText(this, "Could not delete the template", Toast.LENGTH_SHORT).show()))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     private void setupRecyclerView() {
         itemAdapter = new PackingItemAdapter(this::toggleItem, this::deleteItem, this::editItem);
-        recyclerItems.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerItems.setLayoutManager(layoutManager);
         recyclerItems.setAdapter(itemAdapter);
+        itemScrollListener = new PagingScrollListener(layoutManager, () -> {
+            if (itemPager != null) {
+                itemPager.loadNextPage();
+            }
+        }, () -> {
+            if (itemPager != null) {
+                itemPager.loadPreviousPage();
+            }
+        });
+        recyclerItems.addOnScrollListener(itemScrollListener);
     }
 
-    private void toggleItem(PackingItem item) {
+    private void toggleItem(PackingListItem item) {
         item.isPacked = !item.isPacked;
-        database.packingItemDao().updateItem(item);
-        // Update the item in both lists
-        updateItemInLists(item);
-        itemAdapter.notifyDataSetChanged();
+        // Buffered and written in a batch, the UI only redraws the one row
+        toggleBuffer.toggle(item);
+        packedItems += item.isPacked ? 1 : -1;
+        int position = loadedItems.indexOf(item);
+        if (position >= 0) {
+            itemAdapter.notifyItemChanged(position);
+        }
         updateProgress();
     }
 
-    private void deleteItem(PackingItem item) {
+    private void deleteItem(PackingListItem item) {
         new AlertDialog.Builder(this)
                 .setTitle("Delete Item")
                 .setMessage("Are you sure you want to delete \"" + item.itemName + "\"?")
-                .setPositiveButton("Delete", (dialog, which) -> {
-                    database.packingItemDao().deleteItem(item);
-                    loadItems();
-                    updateProgress();
-                    Toast.makeText(this, "Item deleted", Toast.LENGTH_SHORT).show();
-                })
+                .setPositiveButton("Delete", (dialog, which) -> PackingDatabase.executeWrite(
+                        () -> repository.deleteItem(item),
+                        () -> Toast.makeText(this, "Item deleted", Toast.LENGTH_SHORT).show(),
+                        error -> Toast.makeText(this, "Could not delete the item", Toast.LENGTH_SHORT).show()))
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
-    private void editItem(PackingItem item) {
+    private void editItem(PackingListItem item) {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Edit Item");
 
@@ -275,11 +432,26 @@ public class PackingListActivity extends AppCompatActivity {
             String newCategory = spinnerEditCategory.getSelectedItem().toString();
 
             if (!newItemName.isEmpty()) {
-                item.itemName = newItemName;
-                item.category = newCategory;
-                database.packingItemDao().updateItem(item);
-                loadItems();
-                Toast.makeText(this, "Item updated", Toast.LENGTH_SHORT).show();
+                // The shown row keeps the old names until the write went through
+                PackingListItem edited = item.copy();
+                edited.itemName = newItemName;
+                edited.category = newCategory;
+                PackingDatabase.executeQuery(() -> repository.updateItem(edited), updated -> {
+                    if (updated) {
+                        edited.version++;
+                        edited.isPacked = item.isPacked; // Toggled while saving
+                        int position = loadedItems.indexOf(item);
+                        if (position >= 0) {
+                            loadedItems.set(position, edited);
+                            itemAdapter.notifyItemChanged(position);
+                        }
+                        Toast.makeText(this, "Item updated", Toast.LENGTH_SHORT).show();
+                    } else {
+                        // Changed elsewhere since it was loaded, show the stored version again
+                        Toast.makeText(this, "Item was changed elsewhere, please try again", Toast.LENGTH_SHORT).show();
+                        observeItems();
+                    }
+                }, error -> Toast.makeText(this, "Could not update the item", Toast.LENGTH_SHORT).show());
             } else {
                 Toast.makeText(this, "Item name cannot be empty", Toast.LENGTH_SHORT).show();
             }
@@ -289,56 +461,64 @@ public class PackingListActivity extends AppCompatActivity {
         builder.show();
     }
 
-    private void loadItems() {
-        allItems = database.packingItemDao().getItemsForTrip(tripId);
-        filterItemsByCategory(currentFilter);
-    }
-
-    private void updateItemInLists(PackingItem updatedItem) {
-        // Update item in allItems list
-        for (int i = 0; i < allItems.size(); i++) {
-            if (allItems.get(i).id == updatedItem.id) {
-                allItems.set(i, updatedItem);
-                break;
-            }
+    // Pages through the current filter with keyset queries; after a packing_items write
+    // only the window of pages the pager holds is re-read
+    private void observeItems() {
+        if (itemPager != null) {
+            itemPager.removeObservers(this);
+            itemPager.release();
         }
 
-        // Update item in filteredItems list
-        for (int i = 0; i < filteredItems.size(); i++) {
-            if (filteredItems.get(i).id == updatedItem.id) {
-                filteredItems.set(i, updatedItem);
-                break;
-            }
-        }
+        // Captures only the repository and keys so the pager does not hold on to this activity
+        TripRepository itemRepository = repository;
+        PackedStateBuffer buffer = toggleBuffer;
+        long pagedTripId = tripId;
+        String category = currentFilter.equals("All Categories") ? null : currentFilter;
+
+        itemPager = new KeysetPagedLiveData<>(database, ITEM_PAGE_SIZE, (after, limit) -> {
+            List<PackingListItem> page = itemRepository.getItemsPage(pagedTripId, category, after, limit);
+            buffer.applyPending(page);
+            return page;
+        }, "packing_items");
+
+        KeysetPagedLiveData<PackingListItem> pager = itemPager;
+        itemPager.observe(this, items -> {
+            itemScrollListener.keepPosition(pager.getStartShift());
+            loadedItems = items;
+            itemAdapter.updateItems(items);
+            updateProgress();
+        });
     }
 
     private void updateProgress() {
-        // Calculate progress based on ALL items, not just filtered ones
-        int totalItems = allItems.size();
-        int packedItems = 0;
-
-        for (PackingItem item : allItems) {
-            if (item.isPacked) packedItems++;
-        }
-
+        // Progress covers ALL items of the trip, counted in SQL rather than from the loaded pages
         int progressPercent = totalItems > 0 ? (packedItems * 100) / totalItems : 0;
         progressBar.setProgress(progressPercent);
 
         // Show filter info in progress text if filtering is active
         String progressText = packedItems + "/" + totalItems + " items packed (" + progressPercent + "%)";
         if (!currentFilter.equals("All Categories")) {
-            progressText += " | Showing: " + filteredItems.size() + " " + currentFilter + " items";
+            String shown = loadedItems.size() + (itemPager != null && itemPager.isFullyLoaded() ? "" : "+");
+            progressText += " | Showing: " + shown + " " + currentFilter + " items";
         }
         textProgress.setText(progressText);
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-        // Refresh trip data in case it was edited
-        currentTrip = database.tripDao().getTripById(tripId);
-        updateTripInfo();
-        loadItems();
-        updateProgress();
+    protected void onPause() {
+        super.onPause();
+        // Don't leave toggles waiting on the timer once the list is off screen
+        toggleBuffer.flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (itemPager != null) {
+            itemPager.release();
+        }
+        if (tripObserver != null) {
+            tripObserver.release();
+        }
     }
 }
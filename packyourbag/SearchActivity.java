@@ -0,0 +1,125 @@
+package com.example.packyourbag;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.packyourbag.Adapter.SearchResultAdapter;
+import com.example.packyourbag.Database.PackingDatabase;
+import com.example.packyourbag.DatabaseEntities.SearchHit;
+import com.example.packyourbag.Utils.PackingUtils;
+
+import java.util.ArrayList;
+
+public class SearchActivity extends AppCompatActivity {
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+    private static final int MAX_RESULTS = 100;
+
+    private PackingDatabase database;
+    private EditText editSearch;
+    private TextView textResultCount;
+    private SearchResultAdapter resultAdapter;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::runSearch;
+    private int searchGeneration; // Drops results of searches that were overtaken by newer input
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        database = PackingDatabase.getInstance(this);
+
+        initViews();
+        setTitle("Search Items & Trips");
+    }
+
+    // Simple enough to build in code: search box, result count and the result list
+    private void initViews() {
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+
+        LinearLayout root = new LinearLayout(this);
+        root.setOrientation(LinearLayout.VERTICAL);
+        root.setPadding(padding, padding, padding, 0);
+
+        editSearch = new EditText(this);
+        editSearch.setHint("Search e.g. adapter, passport, Tokyo");
+        editSearch.setSingleLine(true);
+        root.addView(editSearch);
+
+        textResultCount = new TextView(this);
+        textResultCount.setVisibility(View.GONE);
+        root.addView(textResultCount);
+
+        RecyclerView recyclerResults = new RecyclerView(this);
+        resultAdapter = new SearchResultAdapter(this::openHit);
+        recyclerResults.setLayoutManager(new LinearLayoutManager(this));
+        recyclerResults.setAdapter(resultAdapter);
+        root.addView(recyclerResults, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.MATCH_PARENT));
+
+        setContentView(root);
+
+        editSearch.addTextChangedListener(new TextWatcher() {
+            @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Debounce so fast typing runs one query instead of one per keystroke
+                handler.removeCallbacks(searchRunnable);
+                handler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
+            }
+
+            @Override public void afterTextChanged(Editable s) {}
+        });
+    }
+
+    private void runSearch() {
+        String term = editSearch.getText().toString().trim();
+        String matchQuery = PackingUtils.toFtsQuery(term);
+        int requestGeneration = ++searchGeneration;
+
+        if (matchQuery == null) {
+            resultAdapter.updateHits(new ArrayList<>());
+            textResultCount.setVisibility(View.GONE);
+            return;
+        }
+
+        PackingDatabase.executeQuery(() -> database.searchDao().search(matchQuery, MAX_RESULTS), hits -> {
+            if (requestGeneration != searchGeneration) {
+                return;
+            }
+            resultAdapter.updateHits(hits);
+            textResultCount.setText(hits.isEmpty() ? "No matches for \"" + term + "\""
+                    : hits.size() + (hits.size() == MAX_RESULTS ? "+" : "") + " matches");
+            textResultCount.setVisibility(View.VISIBLE);
+        }, error -> {
+            if (requestGeneration != searchGeneration) {
+                return;
+            }
+            resultAdapter.updateHits(new ArrayList<>());
+            textResultCount.setText("Search failed, please try again");
+            textResultCount.setVisibility(View.VISIBLE);
+        });
+    }
+
+    private void openHit(SearchHit hit) {
+        Intent intent = new Intent(this, PackingListActivity.class);
+        intent.putExtra("tripId", hit.tripId);
+        startActivity(intent);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(searchRunnable);
+    }
+}
\ No newline at end of file
@@ -3,9 +3,10 @@ package com.example.packyourbag.Services;
 import android.content.Context;
 import com.android.volley.AuthFailureError;
 import com.android.volley.Request;
-import com.android.volley.RequestQueue;
 import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
+import com.example.packyourbag.Database.PackingDatabase;
+import com.example.packyourbag.Database.SuggestionDatabase;
+import com.example.packyourbag.DatabaseEntities.SuggestedItem;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import java.util.ArrayList;
@@ -18,12 +19,12 @@ public class AIRecommendationService {
     private static final String GEMINI_URL = "";
 
     private final Context context;
-    private final RequestQueue requestQueue;
+    private final NetworkClient networkClient;
     private final WeatherService weatherService;
 
     public AIRecommendationService(Context context) {
         this.context = context;
-        this.requestQueue = Volley.newRequestQueue(context);
+        this.networkClient = NetworkClient.getInstance(context);
         this.weatherService = new WeatherService(context);
     }
 
@@ -72,6 +73,18 @@ public class AIRecommendationService {
         });
     }
 
+    /**
+     * Same as above for callers that already hold the destination's weather, so it isn't
+     * fetched a second time; weatherData may be null when it couldn't be loaded
+     */
+    public void generateSmartRecommendations(String destination, int duration, String tripType,
+                                             String startDate, String endDate,
+                                             WeatherService.WeatherData weatherData,
+                                             RecommendationCallback callback) {
+        generateAIRecommendations(destination, duration, tripType, startDate, endDate,
+                weatherData, callback);
+    }
+
     private void generateAIRecommendations(String destination, int duration, String tripType,
                                            String startDate, String endDate,
                                            WeatherService.WeatherData weatherData,
@@ -165,7 +178,7 @@ public class AIRecommendationService {
                 }
             };
 
-            requestQueue.add(request);
+            networkClient.add(request, context);
 
         } catch (Exception e) {
             generateFallbackRecommendations(callback);
@@ -238,27 +251,35 @@ public class AIRecommendationService {
 //
 //        callback.onSuccess(data);
 //    }
+// Offline list from the suggestion catalog, the category of each row is its recommendation group
 private void generateFallbackRecommendations(RecommendationCallback callback) {
-    RecommendationData data = new RecommendationData();
-
-    data.essentialItems.add("Passport/ID");
-    data.essentialItems.add("Phone charger");
-    data.essentialItems.add("Toothbrush");
-    data.essentialItems.add("Toothpaste");
-    data.essentialItems.add("Underwear");
-    data.essentialItems.add("Socks");
-
-    data.weatherSpecificItems.add("Check weather before departure");
-    data.weatherSpecificItems.add("Pack layers for temperature changes");
+    PackingDatabase.executeQuery(() -> SuggestionDatabase.getInstance(context).suggestionDao()
+            .getSuggestions(SuggestionDatabase.LIST_FALLBACK, "", 0, 0, "", 0), suggestions -> {
+        RecommendationData data = new RecommendationData();
 
-    data.safetyItems.add("First aid kit");
-    data.safetyItems.add("Emergency contacts");
+        for (SuggestedItem suggestion : suggestions) {
+            switch (suggestion.category) {
+                case "Essential":
+                    data.essentialItems.add(suggestion.itemName);
+                    break;
+                case "Weather-Specific":
+                    data.weatherSpecificItems.add(suggestion.itemName);
+                    break;
+                case "Activity":
+                    data.activityBasedItems.add(suggestion.itemName);
+                    break;
+                default:
+                    data.safetyItems.add(suggestion.itemName);
+                    break;
+            }
+        }
 
-    // Initialize the strings that might be null
-    data.packingTips = "AI unavailable. Pack according to weather and trip type.";
-    data.weatherAlert = ""; // Initialize as empty string instead of leaving null
-    data.notifications.add("Fallback recommendations applied.");
+        // Initialize the strings that might be null
+        data.packingTips = "AI unavailable. Pack according to weather and trip type.";
+        data.weatherAlert = ""; // Initialize as empty string instead of leaving null
+        data.notifications.add("Fallback recommendations applied.");
 
-    callback.onSuccess(data);
+        callback.onSuccess(data);
+    }, error -> callback.onError("Fallback recommendations unavailable: " + error.getMessage()));
 }
 }
\ No newline at end of file
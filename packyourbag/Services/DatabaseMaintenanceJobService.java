@@ -0,0 +1,60 @@
+package com.example.packyourbag.Services;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import com.example.packyourbag.Database.DatabaseMaintenance;
+import com.example.packyourbag.Database.PackingDatabase;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs DatabaseMaintenance about once a day while the device is idle and charging.
+ * Needs a manifest entry with android:permission="android.permission.BIND_JOB_SERVICE"
+ */
+public class DatabaseMaintenanceJobService extends JobService {
+    private static final String TAG = "DatabaseMaintenanceJob";
+    private static final int JOB_ID = 7001;
+
+    /**
+     * Schedules the periodic job unless it is already pending (rescheduling would reset its period)
+     */
+    public static void schedule(Context context) {
+        JobScheduler scheduler = context.getSystemService(JobScheduler.class);
+        if (scheduler == null || scheduler.getPendingJob(JOB_ID) != null) {
+            return;
+        }
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, DatabaseMaintenanceJobService.class))
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .setPeriodic(TimeUnit.DAYS.toMillis(1))
+                .build();
+        if (scheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "Could not schedule database maintenance");
+        }
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        PackingDatabase.databaseExecutor.execute(() -> {
+            try {
+                new DatabaseMaintenance(this).run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Database maintenance failed", e);
+            }
+            jobFinished(params, false);
+        });
+        return true; // Finishes on the database executor
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // The steps can't be interrupted halfway; the next period runs them again
+        return false;
+    }
+}
\ No newline at end of file
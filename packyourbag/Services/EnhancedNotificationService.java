@@ -195,7 +195,7 @@ public class EnhancedNotificationService {
 
                     // Also check for updated AI recommendations
                     checkForRecommendationUpdates(destination, duration, tripType,
-                            startDate, endDate, String.valueOf(tripId));
+                            startDate, endDate, weatherData, String.valueOf(tripId));
                 }
 
                 @Override
@@ -245,9 +245,10 @@ public class EnhancedNotificationService {
     }
 
     private void checkForRecommendationUpdates(String destination, int duration, String tripType,
-                                               String startDate, String endDate, String tripId) {
+                                               String startDate, String endDate,
+                                               WeatherService.WeatherData weatherData, String tripId) {
 
-        aiService.generateSmartRecommendations(destination, duration, tripType, startDate, endDate,
+        aiService.generateSmartRecommendations(destination, duration, tripType, startDate, endDate, weatherData,
                 new AIRecommendationService.RecommendationCallback() {
                     @Override
                     public void onSuccess(AIRecommendationService.RecommendationData recommendations) {
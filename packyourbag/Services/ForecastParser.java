@@ -0,0 +1,240 @@
+package com.example.packyourbag.Services;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.TimeZone;
+
+/**
+ * Single pass over a 5-day / 3-hour forecast payload straight into WeatherData, without
+ * building a JSON tree: each "list" entry is read into one reused Entry and folded into the
+ * current conditions, the first 24 hours and the per-day summaries before the next is read.
+ * Runs on Volley's network or cache thread from ForecastRequest
+ */
+final class ForecastParser {
+    private static final int HOURLY_ENTRIES = 8; // 8 * 3 hours = 24 hours
+    private static final long DAY_MS = 24 * 60 * 60 * 1000;
+
+    // The fields used from one "list" entry
+    private static final class Entry {
+        long dt;
+        double temp;
+        double feelsLike;
+        double tempMin;
+        double tempMax;
+        int humidity;
+        String condition;
+        String description;
+        double windSpeed;
+        double pop;
+        boolean hasMain;
+        boolean hasWeather;
+
+        void clear() {
+            dt = 0;
+            temp = feelsLike = tempMin = tempMax = windSpeed = pop = 0;
+            humidity = 0;
+            condition = description = null;
+            hasMain = hasWeather = false;
+        }
+    }
+
+    private final TimeZone timeZone = TimeZone.getDefault(); // Days are local calendar days
+    private final Entry entry = new Entry();
+
+    static WeatherService.WeatherData parse(byte[] data, Charset charset, String cityName, String country)
+            throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(data), charset))) {
+            return new ForecastParser().read(reader, cityName, country);
+        }
+    }
+
+    private ForecastParser() {
+    }
+
+    private WeatherService.WeatherData read(JsonReader reader, String cityName, String country) throws IOException {
+        WeatherService.WeatherData weatherData = new WeatherService.WeatherData();
+        weatherData.cityName = cityName;
+        weatherData.country = country;
+
+        boolean hasList = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("list") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                readList(reader, weatherData);
+                hasList = true;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasList) {
+            throw new IOException("No forecast list in the response");
+        }
+        return weatherData;
+    }
+
+    private void readList(JsonReader reader, WeatherService.WeatherData weatherData) throws IOException {
+        WeatherService.DailyForecast currentDay = null;
+        long currentDayNumber = Long.MIN_VALUE;
+
+        reader.beginArray();
+        for (int index = 0; reader.hasNext(); index++) {
+            readEntry(reader);
+            if (!entry.hasMain || !entry.hasWeather) {
+                throw new IOException("Forecast entry " + index + " has no main or weather block");
+            }
+
+            if (index == 0) {
+                weatherData.currentTemp = entry.temp;
+                weatherData.currentCondition = entry.condition;
+                weatherData.currentDescription = entry.description;
+                weatherData.humidity = entry.humidity;
+                weatherData.feelsLike = entry.feelsLike;
+                weatherData.windSpeed = entry.windSpeed;
+            }
+
+            if (index < HOURLY_ENTRIES) {
+                WeatherService.HourlyForecast forecast = new WeatherService.HourlyForecast();
+                forecast.timestamp = entry.dt;
+                forecast.temperature = entry.temp;
+                forecast.condition = entry.condition;
+                forecast.description = entry.description;
+                forecast.humidity = entry.humidity;
+                forecast.windSpeed = entry.windSpeed;
+                forecast.precipitationChance = entry.pop * 100;
+                weatherData.hourlyForecasts.add(forecast);
+            }
+
+            // The first entry of a day describes it, later ones only widen its temperature range
+            long millis = entry.dt * 1000;
+            long dayNumber = Math.floorDiv(millis + timeZone.getOffset(millis), DAY_MS);
+            if (dayNumber != currentDayNumber) {
+                currentDay = new WeatherService.DailyForecast();
+                currentDay.timestamp = entry.dt;
+                currentDay.minTemp = entry.tempMin;
+                currentDay.maxTemp = entry.tempMax;
+                currentDay.condition = entry.condition;
+                currentDay.description = entry.description;
+                currentDay.humidity = entry.humidity;
+                currentDay.precipitationChance = entry.pop * 100;
+                weatherData.dailyForecasts.add(currentDay);
+                currentDayNumber = dayNumber;
+            } else {
+                currentDay.minTemp = Math.min(currentDay.minTemp, entry.tempMin);
+                currentDay.maxTemp = Math.max(currentDay.maxTemp, entry.tempMax);
+            }
+        }
+        reader.endArray();
+    }
+
+    private void readEntry(JsonReader reader) throws IOException {
+        entry.clear();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "dt":
+                    entry.dt = reader.nextLong();
+                    break;
+                case "main":
+                    readMain(reader);
+                    break;
+                case "weather":
+                    readWeather(reader);
+                    break;
+                case "wind":
+                    readWind(reader);
+                    break;
+                case "pop":
+                    entry.pop = nextDouble(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readMain(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "temp":
+                    entry.temp = reader.nextDouble();
+                    break;
+                case "feels_like":
+                    entry.feelsLike = reader.nextDouble();
+                    break;
+                case "temp_min":
+                    entry.tempMin = reader.nextDouble();
+                    break;
+                case "temp_max":
+                    entry.tempMax = reader.nextDouble();
+                    break;
+                case "humidity":
+                    entry.humidity = reader.nextInt();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        entry.hasMain = true;
+    }
+
+    // Only the first element describes the entry, like weather[0] everywhere else in the app
+    private void readWeather(JsonReader reader) throws IOException {
+        reader.beginArray();
+        if (reader.hasNext()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "main":
+                        entry.condition = reader.nextString();
+                        break;
+                    case "description":
+                        entry.description = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            entry.hasWeather = entry.condition != null && entry.description != null;
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+    }
+
+    private void readWind(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("speed")) {
+                entry.windSpeed = nextDouble(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    // Optional numbers may come as null, which counts as 0
+    private static double nextDouble(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextDouble();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.packyourbag.Services;
+
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Forecast GET parsed by ForecastParser on the network (or cache) thread, so the listener gets
+ * WeatherData ready to show. The disk cache entry lives until the provider's next forecast run
+ * rather than whatever the response headers say. Until then Volley answers from the cache without touching
+ * the network; after that it revalidates with If-None-Match / If-Modified-Since, and a 304 reuses
+ * the cached body. The soft and hard expiry are equal so a listener is only ever called once
+ */
+class ForecastRequest extends Request<WeatherService.WeatherData> {
+    // The 5-day / 3-hour forecast is recomputed every three hours (UTC); give the provider a
+    // few minutes to publish a run before asking for it
+    static final long UPDATE_PERIOD_MS = 3 * 60 * 60 * 1000;
+    private static final long PUBLISH_DELAY_MS = 10 * 60 * 1000;
+
+    private final String cityName;
+    private final String country;
+    private final Response.Listener<WeatherService.WeatherData> listener;
+
+    ForecastRequest(String url, String cityName, String country,
+                    Response.Listener<WeatherService.WeatherData> listener, Response.ErrorListener errorListener) {
+        super(Request.Method.GET, url, errorListener);
+        this.cityName = cityName;
+        this.country = country;
+        this.listener = listener;
+        setShouldCache(true);
+    }
+
+    /**
+     * When the forecast available at the given time gets replaced by the next run
+     */
+    static long nextUpdateAfter(long timeMillis) {
+        return ((timeMillis - PUBLISH_DELAY_MS) / UPDATE_PERIOD_MS + 1) * UPDATE_PERIOD_MS + PUBLISH_DELAY_MS;
+    }
+
+    @Override
+    protected Response<WeatherService.WeatherData> parseNetworkResponse(NetworkResponse response) {
+        try {
+            Charset charset = Charset.forName(HttpHeaderParser.parseCharset(response.headers, "UTF-8"));
+            return Response.success(ForecastParser.parse(response.data, charset, cityName, country),
+                    cacheEntry(response));
+        } catch (IOException | RuntimeException e) {
+            return Response.error(new ParseError(e));
+        }
+    }
+
+    @Override
+    protected void deliverResponse(WeatherService.WeatherData weatherData) {
+        listener.onResponse(weatherData);
+    }
+
+    private static Cache.Entry cacheEntry(NetworkResponse response) {
+        // null when the server says no-cache or no-store; the validators are still worth keeping
+        Cache.Entry entry = HttpHeaderParser.parseCacheHeaders(response);
+        if (entry == null) {
+            entry = new Cache.Entry();
+            entry.data = response.data;
+            entry.responseHeaders = response.headers;
+            entry.allResponseHeaders = response.allHeaders;
+            if (response.headers != null) {
+                entry.etag = response.headers.get("ETag");
+                String date = response.headers.get("Date");
+                String lastModified = response.headers.get("Last-Modified");
+                if (date != null) entry.serverDate = HttpHeaderParser.parseDateAsEpoch(date);
+                if (lastModified != null) entry.lastModified = HttpHeaderParser.parseDateAsEpoch(lastModified);
+            }
+        }
+        entry.ttl = nextUpdateAfter(System.currentTimeMillis());
+        entry.softTtl = entry.ttl;
+        return entry;
+    }
+}
\ No newline at end of file
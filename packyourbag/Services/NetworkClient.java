@@ -0,0 +1,176 @@
+package com.example.packyourbag.Services;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Looper;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+import com.android.volley.toolbox.HurlStack;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The one Volley queue for the whole app: a fixed set of dispatcher threads, one disk cache
+ * and HttpURLConnection's keep-alive pool shared by every service and screen. At most
+ * MAX_REQUESTS_PER_HOST requests run against a host at once, the rest wait here so a burst
+ * to one API can't hold every network thread. Requests are tagged with their owner; when the
+ * owner is a LifecycleOwner they are cancelled once it is destroyed
+ */
+public class NetworkClient {
+    private static final int NETWORK_THREADS = 4;
+    private static final int MAX_REQUESTS_PER_HOST = 2;
+    private static final int DISK_CACHE_BYTES = 5 * 1024 * 1024;
+    private static final String CACHE_DIRECTORY = "volley"; // Same as Volley.newRequestQueue used
+
+    private static volatile NetworkClient instance;
+
+    private final RequestQueue queue;
+
+    // All guarded by this
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private final Map<String, ArrayDeque<Request<?>>> waitingPerHost = new HashMap<>();
+    private final Set<Request<?>> running = new HashSet<>();
+    private final Set<LifecycleOwner> boundOwners = new HashSet<>(); // Main thread only
+
+    public static NetworkClient getInstance(Context context) {
+        if (instance == null) {
+            synchronized (NetworkClient.class) {
+                if (instance == null) {
+                    instance = new NetworkClient(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private NetworkClient(Context context) {
+        File cacheDir = new File(context.getCacheDir(), CACHE_DIRECTORY);
+        queue = new RequestQueue(new DiskBasedCache(cacheDir, DISK_CACHE_BYTES),
+                new BasicNetwork(new HurlStack()), NETWORK_THREADS);
+        // Called for every request that leaves the queue: delivered, failed, served from the
+        // cache or cancelled
+        queue.addRequestFinishedListener(new RequestQueue.RequestFinishedListener<Object>() {
+            @Override
+            public void onRequestFinished(Request<Object> request) {
+                onFinished(request);
+            }
+        });
+        queue.start();
+    }
+
+    /**
+     * Queues the request under the given tag (usually the Activity or service that owns the
+     * callbacks). Cancel with cancelAll(tag); a LifecycleOwner tag does that by itself on destroy
+     */
+    public <T> Request<T> add(Request<T> request, Object tag) {
+        request.setTag(tag);
+        if (tag instanceof LifecycleOwner) {
+            bindToLifecycle((LifecycleOwner) tag);
+        }
+
+        String host = hostOf(request);
+        synchronized (this) {
+            int runningForHost = count(host);
+            if (runningForHost >= MAX_REQUESTS_PER_HOST) {
+                ArrayDeque<Request<?>> waiting = waitingPerHost.get(host);
+                if (waiting == null) {
+                    waiting = new ArrayDeque<>();
+                    waitingPerHost.put(host, waiting);
+                }
+                waiting.add(request);
+                return request;
+            }
+            runningPerHost.put(host, runningForHost + 1);
+            running.add(request);
+        }
+        return queue.add(request);
+    }
+
+    /**
+     * Cancels every queued, waiting and running request with this tag. Their listeners are
+     * not called
+     */
+    public void cancelAll(Object tag) {
+        synchronized (this) {
+            for (ArrayDeque<Request<?>> waiting : waitingPerHost.values()) {
+                Iterator<Request<?>> iterator = waiting.iterator();
+                while (iterator.hasNext()) {
+                    Request<?> request = iterator.next();
+                    if (request.getTag() == tag) {
+                        request.cancel();
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+        queue.cancelAll(tag);
+    }
+
+    private void onFinished(Request<?> request) {
+        Request<?> next = null;
+        synchronized (this) {
+            if (!running.remove(request)) return;
+
+            String host = hostOf(request);
+            ArrayDeque<Request<?>> waiting = waitingPerHost.get(host);
+            while (waiting != null && !waiting.isEmpty() && next == null) {
+                Request<?> candidate = waiting.poll();
+                if (!candidate.isCanceled()) next = candidate;
+            }
+            if (waiting != null && waiting.isEmpty()) {
+                waitingPerHost.remove(host);
+            }
+
+            if (next != null) {
+                running.add(next); // Takes over the finished request's slot
+            } else if (count(host) <= 1) {
+                runningPerHost.remove(host);
+            } else {
+                runningPerHost.put(host, count(host) - 1);
+            }
+        }
+        if (next != null) {
+            queue.add(next);
+        }
+    }
+
+    // Lifecycle observers can only be added on the main thread; requests queued from other
+    // threads keep their tag and are cancelled through cancelAll
+    private void bindToLifecycle(LifecycleOwner owner) {
+        if (Looper.myLooper() != Looper.getMainLooper() || !boundOwners.add(owner)) return;
+
+        owner.getLifecycle().addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    boundOwners.remove(source);
+                    cancelAll(source);
+                }
+            }
+        });
+    }
+
+    private int count(String host) {
+        Integer count = runningPerHost.get(host);
+        return count != null ? count : 0;
+    }
+
+    private static String hostOf(Request<?> request) {
+        String host = Uri.parse(request.getUrl()).getHost();
+        return host != null ? host : "";
+    }
+}
\ No newline at end of file
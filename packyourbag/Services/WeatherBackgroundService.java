@@ -6,18 +6,23 @@ import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.IBinder;
 import androidx.core.content.ContextCompat;
-import androidx.room.Room;
 import com.example.packyourbag.Database.PackingDatabase;
+import com.example.packyourbag.Database.TripRepository;
 import com.example.packyourbag.DatabaseEntities.Trip;
-import com.example.packyourbag.DatabaseEntities.PackingItem;
+import com.example.packyourbag.DatabaseEntities.PackingListItem;
+import com.example.packyourbag.DatabaseEntities.TripProgress;
+import com.example.packyourbag.Utils.PackingUtils;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class WeatherBackgroundService extends Service {
+    // Trips starting tomorrow up to this many days ahead are monitored
+    private static final int UPCOMING_WINDOW_DAYS = 30;
+
     private ScheduledExecutorService scheduler;
-    private PackingDatabase database;
+    private TripRepository repository;
     private WeatherService weatherService;
     private AIRecommendationService aiService;
     private EnhancedNotificationService notificationService;
@@ -26,10 +31,7 @@ public class WeatherBackgroundService extends Service {
     public void onCreate() {
         super.onCreate();
 
-        database = Room.databaseBuilder(getApplicationContext(),
-                        PackingDatabase.class, "packing_db")
-                .allowMainThreadQueries()
-                .build();
+        repository = TripRepository.getInstance(this);
 
         weatherService = new WeatherService(this);
         aiService = new AIRecommendationService(this);
@@ -101,27 +103,12 @@ public class WeatherBackgroundService extends Service {
             return;
         }
 
-        List<Trip> trips = database.tripDao().getAllTrips();
+        // Only check upcoming trips (within next 30 days)
+        long today = PackingUtils.todayEpochDay();
+        List<Trip> trips = repository.getTripsStartingBetween(today + 1, today + UPCOMING_WINDOW_DAYS);
 
         for (Trip trip : trips) {
-            // Only check upcoming trips (within next 30 days)
-            if (isUpcomingTrip(trip.startDate)) {
-                checkTripWeatherUpdates(trip);
-            }
-        }
-    }
-
-    private boolean isUpcomingTrip(String startDate) {
-        try {
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd",
-                    java.util.Locale.getDefault());
-            java.util.Date tripDate = sdf.parse(startDate);
-            java.util.Date today = new java.util.Date();
-            java.util.Date thirtyDaysFromNow = new java.util.Date(today.getTime() + 30L * 24 * 60 * 60 * 1000);
-
-            return tripDate != null && tripDate.after(today) && tripDate.before(thirtyDaysFromNow);
-        } catch (Exception e) {
-            return false;
+            checkTripWeatherUpdates(trip);
         }
     }
 
@@ -133,12 +120,23 @@ public class WeatherBackgroundService extends Service {
             public void onSuccess(WeatherService.WeatherData weatherData) {
                 // Check for significant weather changes
                 if (hasSignificantWeatherChange(trip.weatherInfo, weatherData)) {
-                    // Update trip weather info
-                    trip.weatherInfo = weatherService.formatWeatherSummary(weatherData);
-                    database.tripDao().updateTrip(trip);
-
-                    // Generate updated recommendations
-                    checkForUpdatedRecommendations(trip, weatherData);
+                    // Update trip weather info, unless the trip was edited since it was loaded
+                    String weatherInfo = weatherService.formatWeatherSummary(weatherData);
+                    int expectedVersion = trip.version;
+                    PackingDatabase.executeQuery(
+                            () -> repository.setWeatherInfo(trip.id, weatherInfo, expectedVersion),
+                            updated -> {
+                                if (updated == 0) {
+                                    android.util.Log.d("WeatherBackgroundService", "Trip " + trip.id +
+                                            " changed during the weather check, retrying next cycle");
+                                    return;
+                                }
+                                trip.weatherInfo = weatherInfo;
+                                trip.version++;
+
+                                // Generate updated recommendations
+                                checkForUpdatedRecommendations(trip, weatherData);
+                            });
                 }
             }
 
@@ -192,25 +190,29 @@ public class WeatherBackgroundService extends Service {
                 trip.tripType,
                 trip.startDate,
                 trip.endDate,
+                weatherData,
                 new AIRecommendationService.RecommendationCallback() {
                     @Override
                     public void onSuccess(AIRecommendationService.RecommendationData recommendations) {
-                        // Check if new important items need to be added
-                        List<String> newItems = getNewRecommendedItems(trip.id, recommendations);
-
-                        if (!newItems.isEmpty()) {
-                            // Add new items to database
-                            for (String item : newItems) {
-                                database.packingItemDao().insertItem(
-                                        new PackingItem(trip.id, item, "Weather-Update", false));
+                        // Check if new important items need to be added (off the main thread)
+                        PackingDatabase.executeWrite(() -> {
+                            List<String> newItems = getNewRecommendedItems(trip.id, recommendations);
+
+                            if (!newItems.isEmpty()) {
+                                // Add new items to database in one transaction
+                                List<PackingListItem> itemsToInsert = new java.util.ArrayList<>();
+                                for (String item : newItems) {
+                                    itemsToInsert.add(new PackingListItem(trip.id, item, "Weather-Update", false));
+                                }
+                                repository.insertItems(trip.id, itemsToInsert);
+
+                                // Notify user about new recommendations
+                                String message = "Weather conditions have changed. " + newItems.size() +
+                                        " new items recommended for your trip to " + trip.destination;
+                                notificationService.showRecommendationUpdate(
+                                        trip.destination, message, String.valueOf(trip.id));
                             }
-
-                            // Notify user about new recommendations
-                            String message = "Weather conditions have changed. " + newItems.size() +
-                                    " new items recommended for your trip to " + trip.destination;
-                            notificationService.showRecommendationUpdate(
-                                    trip.destination, message, String.valueOf(trip.id));
-                        }
+                        });
 
                         // Check for weather alerts
                         if (recommendations.weatherAlert != null && !recommendations.weatherAlert.isEmpty()) {
@@ -229,11 +231,10 @@ public class WeatherBackgroundService extends Service {
     }
 
     private List<String> getNewRecommendedItems(long tripId, AIRecommendationService.RecommendationData recommendations) {
-        List<PackingItem> existingItems = database.packingItemDao().getItemsForTrip(tripId);
         List<String> existingItemNames = new java.util.ArrayList<>();
 
-        for (PackingItem item : existingItems) {
-            existingItemNames.add(item.itemName.toLowerCase());
+        for (String name : repository.getItemNames(tripId)) {
+            existingItemNames.add(name.toLowerCase());
         }
 
         List<String> newItems = new java.util.ArrayList<>();
@@ -263,42 +264,18 @@ public class WeatherBackgroundService extends Service {
             return;
         }
 
-        List<Trip> upcomingTrips = getUpcomingTripsWithIncompleteItems();
-
-        for (Trip trip : upcomingTrips) {
-            List<PackingItem> items = database.packingItemDao().getItemsForTrip(trip.id);
-            int incompleteItems = 0;
-            for (PackingItem item : items) {
-                if (!item.isPacked) incompleteItems++;
-            }
+        // Upcoming trips with unpacked items, counted in the same query
+        long today = PackingUtils.todayEpochDay();
+        List<TripProgress> upcomingTrips = repository.getIncompleteTripsStartingBetween(
+                today + 1, today + UPCOMING_WINDOW_DAYS);
 
-            if (incompleteItems > 0) {
-                notificationService.showPackingReminderWithWeather(
-                        trip.destination, incompleteItems, trip.weatherInfo);
-            }
+        for (TripProgress progress : upcomingTrips) {
+            int incompleteItems = progress.totalItems - progress.packedItems;
+            notificationService.showPackingReminderWithWeather(
+                    progress.trip.destination, incompleteItems, progress.trip.weatherInfo);
         }
     }
 
-    private List<Trip> getUpcomingTripsWithIncompleteItems() {
-        List<Trip> allTrips = database.tripDao().getAllTrips();
-        List<Trip> upcomingTrips = new java.util.ArrayList<>();
-
-        for (Trip trip : allTrips) {
-            if (isUpcomingTrip(trip.startDate)) {
-                // Check if trip has incomplete items
-                List<PackingItem> items = database.packingItemDao().getItemsForTrip(trip.id);
-                for (PackingItem item : items) {
-                    if (!item.isPacked) {
-                        upcomingTrips.add(trip);
-                        break;
-                    }
-                }
-            }
-        }
-
-        return upcomingTrips;
-    }
-
     @Override
     public void onDestroy() {
         super.onDestroy();
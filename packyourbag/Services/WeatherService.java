@@ -1,30 +1,54 @@
 package com.example.packyourbag.Services;
 
+import android.app.Activity;
 import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+import com.android.volley.ParseError;
 import com.android.volley.Request;
-import com.android.volley.RequestQueue;
 import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
-import org.json.JSONArray;
+import com.example.packyourbag.DAOInterfaces.GeocodeDao;
+import com.example.packyourbag.Database.PackingDatabase;
+import com.example.packyourbag.DatabaseEntities.GeocodedPlace;
 import org.json.JSONObject;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WeatherService {
+    private static final String TAG = "WeatherService";
     private static final String API_KEY = "";
     private static final String CURRENT_WEATHER_URL = "";
     private static final String FORECAST_URL = "";
     private static final String ONECALL_URL = "";
+    private static final int MAX_CACHED_FORECASTS = 20;
+
+    // Parsed forecasts by coordinates and place name, each valid until the provider's next run.
+    // Shared by every caller, so the WeatherData handed out must be treated as read-only
+    private static final LruCache<String, WeatherData> forecasts = new LruCache<>(MAX_CACHED_FORECASTS);
+
+    // Callers waiting on a lookup that is already running, by normalized destination and by
+    // forecast cache key; only the first caller for a key sends requests, the rest get its result
+    private static final Map<String, List<WeatherCallback>> placeLookups = new HashMap<>();
+    private static final Map<String, List<WeatherCallback>> forecastLookups = new HashMap<>();
+    private static final AtomicInteger requestedLookups = new AtomicInteger();
+    private static final AtomicInteger coalescedLookups = new AtomicInteger();
 
     private Context context;
-    private RequestQueue requestQueue;
+    private NetworkClient networkClient;
+    private GeocodeDao geocodeDao;
 
     public WeatherService(Context context) {
         this.context = context;
-        this.requestQueue = Volley.newRequestQueue(context);
+        this.networkClient = NetworkClient.getInstance(context);
+        this.geocodeDao = PackingDatabase.getInstance(context).geocodeDao();
     }
 
     public interface WeatherCallback {
@@ -84,27 +108,151 @@ public class WeatherService {
     }
 
     public void getDetailedWeather(String cityName, WeatherCallback callback) {
+        requestedLookups.incrementAndGet();
+        String place = normalizePlace(cityName);
+        if (!join(placeLookups, place, forCaller(callback))) return;
+        WeatherCallback waiting = completion(placeLookups, place);
+
         // First get coordinates from city name
         getCoordinates(cityName, new CoordinatesCallback() {
             @Override
             public void onSuccess(double lat, double lon, String actualCityName, String country) {
                 // Then get detailed weather data using coordinates
-                getOneCallWeather(lat, lon, actualCityName, country, callback);
+                getOneCallWeather(lat, lon, actualCityName, country, waiting);
             }
 
             @Override
             public void onError(String error) {
-                callback.onError(error);
+                waiting.onError(error);
             }
         });
     }
 
+    /**
+     * Calls to getDetailedWeather since the process started
+     */
+    public static int getRequestedLookups() {
+        return requestedLookups.get();
+    }
+
+    /**
+     * Calls to getDetailedWeather that shared a lookup another caller had already started
+     */
+    public static int getCoalescedLookups() {
+        return coalescedLookups.get();
+    }
+
+    // Adds the callback to the lookups running for key; true when there was none and the
+    // caller has to start it
+    private static boolean join(Map<String, List<WeatherCallback>> lookups, String key, WeatherCallback callback) {
+        synchronized (lookups) {
+            List<WeatherCallback> waiting = lookups.get(key);
+            if (waiting == null) {
+                waiting = new ArrayList<>();
+                waiting.add(callback);
+                lookups.put(key, waiting);
+                return true;
+            }
+            waiting.add(callback);
+        }
+        Log.d(TAG, "Coalesced lookup for " + key + ", " + coalescedLookups.incrementAndGet()
+                + " of " + requestedLookups.get() + " so far");
+        return false;
+    }
+
+    // Finishes the lookup for key: every caller that joined it gets the same result
+    private static WeatherCallback completion(Map<String, List<WeatherCallback>> lookups, String key) {
+        return new WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherData weatherData) {
+                for (WeatherCallback callback : finish(lookups, key)) {
+                    callback.onSuccess(weatherData);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                for (WeatherCallback callback : finish(lookups, key)) {
+                    callback.onError(error);
+                }
+            }
+        };
+    }
+
+    private static List<WeatherCallback> finish(Map<String, List<WeatherCallback>> lookups, String key) {
+        synchronized (lookups) {
+            List<WeatherCallback> waiting = lookups.remove(key);
+            return waiting != null ? waiting : new ArrayList<>();
+        }
+    }
+
+    // A shared lookup outlives the screen that started it, so its requests are tagged with the
+    // application and results for an Activity destroyed in the meantime are dropped here
+    private WeatherCallback forCaller(WeatherCallback callback) {
+        if (!(context instanceof Activity)) return callback;
+        Activity activity = (Activity) context;
+        return new WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherData weatherData) {
+                if (!activity.isDestroyed()) callback.onSuccess(weatherData);
+            }
+
+            @Override
+            public void onError(String error) {
+                if (!activity.isDestroyed()) callback.onError(error);
+            }
+        };
+    }
+
     private interface CoordinatesCallback {
         void onSuccess(double lat, double lon, String cityName, String country);
         void onError(String error);
     }
 
+    /**
+     * Destination spelling used as the geocoding cache key: case, surrounding spaces and the
+     * spacing around commas don't matter, "Paris, FR" and "paris,fr" share one entry
+     */
+    public static String normalizePlace(String place) {
+        return place.trim().toLowerCase(Locale.ROOT).replaceAll("\\s*,\\s*", ",").replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Stores places suggested by the destination autocomplete so picking one of them needs no
+     * geocoding request. Only the first (best ranked) suggestion per spelling is kept, and fresh
+     * entries aren't overwritten
+     */
+    public void cacheSuggestedPlaces(List<GeocodedPlace> places) {
+        Map<String, GeocodedPlace> firstPerQuery = new LinkedHashMap<>();
+        for (GeocodedPlace place : places) {
+            firstPerQuery.putIfAbsent(place.query, place);
+        }
+        if (firstPerQuery.isEmpty()) return;
+
+        List<GeocodedPlace> unique = new ArrayList<>(firstPerQuery.values());
+        long freshAfter = System.currentTimeMillis() - GeocodeDao.MAX_AGE_MS;
+        PackingDatabase.executeWrite(() -> geocodeDao.insertSuggestedPlaces(unique, freshAfter));
+    }
+
+    private void cachePlaces(List<GeocodedPlace> places) {
+        PackingDatabase.executeWrite(() -> geocodeDao.insertPlaces(places));
+    }
+
+    // Cached coordinates when there are any, otherwise the current-weather endpoint resolves
+    // the name and the answer is kept under both the spelling asked for and the canonical one
     private void getCoordinates(String cityName, CoordinatesCallback callback) {
+        String query = normalizePlace(cityName);
+        long freshAfter = System.currentTimeMillis() - GeocodeDao.MAX_AGE_MS;
+        PackingDatabase.executeQuery(() -> geocodeDao.getPlace(query, freshAfter), place -> {
+            if (place != null) {
+                callback.onSuccess(place.lat, place.lon, place.cityName, place.country);
+            } else {
+                fetchCoordinates(cityName, query, callback);
+            }
+        }, error -> fetchCoordinates(cityName, query, callback)); // A failed read is just a cache miss
+    }
+
+    private void fetchCoordinates(String cityName, String query, CoordinatesCallback callback) {
         String url = CURRENT_WEATHER_URL + "?q=" + cityName + "&appid=" + API_KEY + "&units=metric";
 
         StringRequest request = new StringRequest(Request.Method.GET, url,
@@ -116,6 +264,12 @@ public class WeatherService {
                         double lon = coord.getDouble("lon");
                         String actualCityName = json.getString("name");
                         String country = json.getJSONObject("sys").getString("country");
+                        long now = System.currentTimeMillis();
+                        String canonical = normalizePlace(actualCityName + ", " + country);
+                        cachePlaces(query.equals(canonical)
+                                ? Arrays.asList(new GeocodedPlace(query, lat, lon, actualCityName, country, now))
+                                : Arrays.asList(new GeocodedPlace(query, lat, lon, actualCityName, country, now),
+                                        new GeocodedPlace(canonical, lat, lon, actualCityName, country, now)));
                         callback.onSuccess(lat, lon, actualCityName, country);
                     } catch (Exception e) {
                         callback.onError("Error parsing coordinates: " + e.getMessage());
@@ -124,131 +278,38 @@ public class WeatherService {
                 error -> callback.onError("Failed to get coordinates: " + error.getMessage())
         );
 
-        requestQueue.add(request);
+        networkClient.add(request, context.getApplicationContext());
     }
 
     private void getOneCallWeather(double lat, double lon, String cityName, String country, WeatherCallback callback) {
-        // Note: One Call API 3.0 requires subscription, using 5-day forecast as alternative
-        String url = FORECAST_URL + "?lat=" + lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
-
-        StringRequest request = new StringRequest(Request.Method.GET, url,
-                response -> {
-                    try {
-                        WeatherData weatherData = parseDetailedWeatherResponse(response, cityName, country);
-                        callback.onSuccess(weatherData);
-                    } catch (Exception e) {
-                        callback.onError("Error parsing weather data: " + e.getMessage());
-                    }
-                },
-                error -> callback.onError("Failed to fetch detailed weather: " + error.getMessage())
-        );
-
-        requestQueue.add(request);
-    }
-
-    private WeatherData parseDetailedWeatherResponse(String response, String cityName, String country) throws Exception {
-        JSONObject json = new JSONObject(response);
-        WeatherData weatherData = new WeatherData();
-
-        weatherData.cityName = cityName;
-        weatherData.country = country;
-
-        JSONArray list = json.getJSONArray("list");
-
-        // Get current weather from first forecast item
-        if (list.length() > 0) {
-            JSONObject current = list.getJSONObject(0);
-            JSONObject main = current.getJSONObject("main");
-            JSONObject weather = current.getJSONArray("weather").getJSONObject(0);
-            JSONObject wind = current.optJSONObject("wind");
-
-            weatherData.currentTemp = main.getDouble("temp");
-            weatherData.currentCondition = weather.getString("main");
-            weatherData.currentDescription = weather.getString("description");
-            weatherData.humidity = main.getInt("humidity");
-            weatherData.feelsLike = main.getDouble("feels_like");
-            if (wind != null) {
-                weatherData.windSpeed = wind.optDouble("speed", 0);
-            }
+        // Two decimals (about 1 km) so lookups of the same place share one cache entry
+        String coordinates = String.format(Locale.US, "lat=%.2f&lon=%.2f", lat, lon);
+        String cacheKey = coordinates + "|" + cityName + "|" + country;
+        WeatherData cached = forecasts.get(cacheKey);
+        if (cached != null && ForecastRequest.nextUpdateAfter(cached.timestamp) > System.currentTimeMillis()) {
+            callback.onSuccess(cached);
+            return;
         }
 
-        // Parse hourly forecasts (next 24 hours)
-        for (int i = 0; i < Math.min(8, list.length()); i++) { // 8 * 3 hours = 24 hours
-            JSONObject item = list.getJSONObject(i);
-            HourlyForecast forecast = new HourlyForecast();
+        // Another spelling of the same place may already be fetching this forecast
+        if (!join(forecastLookups, cacheKey, callback)) return;
+        WeatherCallback waiting = completion(forecastLookups, cacheKey);
 
-            forecast.timestamp = item.getLong("dt");
-            JSONObject main = item.getJSONObject("main");
-            JSONObject weather = item.getJSONArray("weather").getJSONObject(0);
+        // Note: One Call API 3.0 requires subscription, using 5-day forecast as alternative.
+        // ForecastRequest keeps the payload on disk until the next forecast run, then revalidates
+        String url = FORECAST_URL + "?" + coordinates + "&appid=" + API_KEY + "&units=metric";
 
-            forecast.temperature = main.getDouble("temp");
-            forecast.condition = weather.getString("main");
-            forecast.description = weather.getString("description");
-            forecast.humidity = main.getInt("humidity");
-
-            if (item.has("wind")) {
-                forecast.windSpeed = item.getJSONObject("wind").optDouble("speed", 0);
-            }
-            if (item.has("pop")) {
-                forecast.precipitationChance = item.getDouble("pop") * 100;
-            }
-
-            weatherData.hourlyForecasts.add(forecast);
-        }
-
-        // Parse daily forecasts
-        parseDailyForecasts(list, weatherData);
-
-        return weatherData;
-    }
-
-    private void parseDailyForecasts(JSONArray list, WeatherData weatherData) throws Exception {
-        // Group forecasts by day
-        String lastDate = "";
-        DailyForecast currentDay = null;
-
-        for (int i = 0; i < list.length(); i++) {
-            JSONObject item = list.getJSONObject(i);
-            long timestamp = item.getLong("dt");
-
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            String currentDate = dateFormat.format(new Date(timestamp * 1000));
-
-            if (!currentDate.equals(lastDate)) {
-                // Start new day
-                if (currentDay != null) {
-                    weatherData.dailyForecasts.add(currentDay);
-                }
-
-                currentDay = new DailyForecast();
-                currentDay.timestamp = timestamp;
-
-                JSONObject main = item.getJSONObject("main");
-                JSONObject weather = item.getJSONArray("weather").getJSONObject(0);
-
-                currentDay.minTemp = main.getDouble("temp_min");
-                currentDay.maxTemp = main.getDouble("temp_max");
-                currentDay.condition = weather.getString("main");
-                currentDay.description = weather.getString("description");
-                currentDay.humidity = main.getInt("humidity");
-
-                if (item.has("pop")) {
-                    currentDay.precipitationChance = item.getDouble("pop") * 100;
-                }
-
-                lastDate = currentDate;
-            } else if (currentDay != null) {
-                // Update min/max temperatures for the same day
-                JSONObject main = item.getJSONObject("main");
-                currentDay.minTemp = Math.min(currentDay.minTemp, main.getDouble("temp_min"));
-                currentDay.maxTemp = Math.max(currentDay.maxTemp, main.getDouble("temp_max"));
-            }
-        }
+        ForecastRequest request = new ForecastRequest(url, cityName, country,
+                weatherData -> {
+                    forecasts.put(cacheKey, weatherData);
+                    waiting.onSuccess(weatherData);
+                },
+                error -> waiting.onError(error instanceof ParseError
+                        ? "Error parsing weather data: " + error.getMessage()
+                        : "Failed to fetch detailed weather: " + error.getMessage())
+        );
 
-        // Add the last day
-        if (currentDay != null) {
-            weatherData.dailyForecasts.add(currentDay);
-        }
+        networkClient.add(request, context.getApplicationContext());
     }
 
     public String formatWeatherSummary(WeatherData weatherData) {
@@ -1,57 +1,73 @@
 package com.example.packyourbag.Utils;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.Calendar;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
 public class PackingUtils {
-
-    public static boolean isUpcomingTrip(String startDateString, int daysAhead) {
-        // Add null and empty string checks
-        if (startDateString == null || startDateString.trim().isEmpty()) {
-            return false;
+    // Stored in trips.startEpochDay/endEpochDay when a date string can't be parsed. Below any
+    // real date, so 0 stays 1970-01-01 and range queries on the epoch days never match it
+    public static final long UNKNOWN_EPOCH_DAY = Long.MIN_VALUE;
+
+    /**
+     * Convert a yyyy-MM-dd string to days since 1970-01-01, without allocating a date formatter
+     */
+    public static long toEpochDay(String date) {
+        if (date == null || date.length() < 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return UNKNOWN_EPOCH_DAY;
         }
-
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
         try {
-            Date tripDate = sdf.parse(startDateString);
-            if (tripDate == null) {
-                return false;
+            int year = Integer.parseInt(date.substring(0, 4));
+            int month = Integer.parseInt(date.substring(5, 7));
+            int day = Integer.parseInt(date.substring(8, 10));
+            if (month < 1 || month > 12 || day < 1 || day > 31) {
+                return UNKNOWN_EPOCH_DAY;
             }
+            return toEpochDay(year, month, day);
+        } catch (NumberFormatException e) {
+            return UNKNOWN_EPOCH_DAY;
+        }
+    }
 
-            Date currentDate = new Date();
-            long diffInMillies = tripDate.getTime() - currentDate.getTime();
-            long diffInDays = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
+    /**
+     * Days since 1970-01-01 for a calendar date (month is 1-12)
+     */
+    public static long toEpochDay(int year, int month, int day) {
+        // Days-from-civil on the proleptic Gregorian calendar, counting years from March
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int monthFromMarch = (month + 9) % 12;
+        int dayOfYear = (153 * monthFromMarch + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Today's date in the device time zone, as days since 1970-01-01
+     */
+    public static long todayEpochDay() {
+        Calendar today = Calendar.getInstance();
+        return toEpochDay(today.get(Calendar.YEAR), today.get(Calendar.MONTH) + 1,
+                today.get(Calendar.DAY_OF_MONTH));
+    }
 
-            return diffInDays <= daysAhead && diffInDays >= 0;
-        } catch (ParseException e) {
-            e.printStackTrace();
+    public static boolean isUpcomingTrip(String startDateString, int daysAhead) {
+        long startDay = toEpochDay(startDateString);
+        if (startDay == UNKNOWN_EPOCH_DAY) {
             return false;
         }
+
+        long diffInDays = startDay - todayEpochDay();
+        return diffInDays <= daysAhead && diffInDays >= 0;
     }
 
     public static int calculateDuration(String startDate, String endDate) {
-        // Add null checks
-        if (startDate == null || endDate == null ||
-                startDate.trim().isEmpty() || endDate.trim().isEmpty()) {
+        long startDay = toEpochDay(startDate);
+        long endDay = toEpochDay(endDate);
+        if (startDay == UNKNOWN_EPOCH_DAY || endDay == UNKNOWN_EPOCH_DAY) {
             return 1; // Default to 1 day
         }
-
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        try {
-            Date start = sdf.parse(startDate);
-            Date end = sdf.parse(endDate);
-
-            if (start != null && end != null) {
-                long diffInMillies = end.getTime() - start.getTime();
-                return (int) TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS) + 1;
-            }
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return 1; // Default to 1 day
+        return (int) (endDay - startDay) + 1;
     }
 
     public static String getPackingProgress(int packedItems, int totalItems) {
@@ -60,6 +76,23 @@ public class PackingUtils {
         return packedItems + "/" + totalItems + " items (" + percentage + "%)";
     }
 
+    /**
+     * Turn free text into an FTS prefix query ("travel adap" -> "travel* adap*"), or null if it has no words
+     */
+    public static String toFtsQuery(String text) {
+        if (text == null) return null;
+
+        StringBuilder query = new StringBuilder();
+        // Anything that isn't a letter or digit would be FTS syntax, treat it as a separator
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (query.length() > 0) query.append(' ');
+            // Lower case so words like OR/NOT are never read as operators
+            query.append(token.toLowerCase(Locale.ROOT)).append('*');
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
     public static String getWeatherEmoji(String condition) {
         if (condition == null || condition.trim().isEmpty()) {
             return "🌤️"; // Default weather emoji
@@ -82,23 +115,13 @@ public class PackingUtils {
     }
 
     public static boolean isTripActive(String startDate, String endDate) {
-        // Add null checks
-        if (startDate == null || endDate == null ||
-                startDate.trim().isEmpty() || endDate.trim().isEmpty()) {
+        long startDay = toEpochDay(startDate);
+        long endDay = toEpochDay(endDate);
+        if (startDay == UNKNOWN_EPOCH_DAY || endDay == UNKNOWN_EPOCH_DAY) {
             return false;
         }
 
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        try {
-            Date start = sdf.parse(startDate);
-            Date end = sdf.parse(endDate);
-            Date today = new Date();
-
-            return start != null && end != null &&
-                    today.compareTo(start) >= 0 && today.compareTo(end) <= 0;
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return false;
-        }
+        long today = todayEpochDay();
+        return today >= startDay && today <= endDay;
     }
 }
\ No newline at end of file
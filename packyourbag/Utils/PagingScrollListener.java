@@ -0,0 +1,48 @@
+package com.example.packyourbag.Utils;
+
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Requests the next page when the list is scrolled to within a few rows of its end, and the
+ * previous one (dropped from a windowed pager) within a few rows of its start
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private final LinearLayoutManager layoutManager;
+    private final Runnable onLoadMore;
+    private final Runnable onLoadPrevious;
+
+    public PagingScrollListener(LinearLayoutManager layoutManager, Runnable onLoadMore, Runnable onLoadPrevious) {
+        this.layoutManager = layoutManager;
+        this.onLoadMore = onLoadMore;
+        this.onLoadPrevious = onLoadPrevious;
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        if (dy > 0) {
+            int lastVisible = layoutManager.findLastVisibleItemPosition();
+            if (lastVisible >= layoutManager.getItemCount() - PREFETCH_DISTANCE) {
+                onLoadMore.run();
+            }
+        } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+            onLoadPrevious.run();
+        }
+    }
+
+    /**
+     * Call before showing a new window with the pager's getStartShift(): when rows were dropped
+     * from or brought back to the start, scrolls so the rows on screen stay where they are
+     */
+    public void keepPosition(int startShift) {
+        if (startShift == 0) return;
+        int firstVisible = layoutManager.findFirstVisibleItemPosition();
+        View firstView = layoutManager.findViewByPosition(firstVisible);
+        layoutManager.scrollToPositionWithOffset(Math.max(0, firstVisible - startShift),
+                firstView != null ? firstView.getTop() : 0);
+    }
+}
\ No newline at end of file
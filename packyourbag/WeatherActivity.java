@@ -25,6 +25,7 @@ public class WeatherActivity extends AppCompatActivity {
 
     private WeatherService weatherService;
     private AIRecommendationService aiService;
+    private WeatherService.WeatherData currentWeather; // Forecast on screen, null until one loads
 
     private Handler autoRefreshHandler;
     private Runnable autoRefreshRunnable;
@@ -118,6 +119,7 @@ public class WeatherActivity extends AppCompatActivity {
             @Override
             public void onSuccess(WeatherService.WeatherData weatherData) {
                 runOnUiThread(() -> {
+                    currentWeather = weatherData;
                     displayWeatherInfo(weatherData);
                     displayHourlyForecast(weatherData);
                     displayDailyForecast(weatherData);
@@ -196,7 +198,7 @@ public class WeatherActivity extends AppCompatActivity {
         btnGetAIRecommendations.setEnabled(false);
         btnGetAIRecommendations.setText("Generating AI Recommendations...");
 
-        aiService.generateSmartRecommendations(destination, duration, tripType, startDate, endDate,
+        AIRecommendationService.RecommendationCallback callback =
                 new AIRecommendationService.RecommendationCallback() {
                     @Override
                     public void onSuccess(AIRecommendationService.RecommendationData recommendations) {
@@ -220,7 +222,15 @@ public class WeatherActivity extends AppCompatActivity {
                             Toast.makeText(WeatherActivity.this, "AI recommendations failed: " + error, Toast.LENGTH_SHORT).show();
                         });
                     }
-                });
+                };
+
+        if (currentWeather != null) {
+            // Reuse the forecast on screen instead of fetching it again
+            aiService.generateSmartRecommendations(destination, duration, tripType, startDate, endDate,
+                    currentWeather, callback);
+        } else {
+            aiService.generateSmartRecommendations(destination, duration, tripType, startDate, endDate, callback);
+        }
     }
 
     private void displayAIRecommendations(AIRecommendationService.RecommendationData recommendations) {